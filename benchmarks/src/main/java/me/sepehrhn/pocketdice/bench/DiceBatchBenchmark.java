@@ -0,0 +1,50 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.random.DiceBatch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-die {@code nextInt} against {@link DiceBatch#fill}, which packs several dice into each 64-bit word.
+ * Uniformity of the batched output is covered by {@code DiceBatchTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiceBatchBenchmark {
+
+    @Param({"4", "6", "8", "10", "20", "100"})
+    public int faces;
+
+    @Param({"50", "500", "5000"})
+    public int count;
+
+    private SplittableRandom rng;
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        rng = new SplittableRandom(42);
+        values = new int[count];
+    }
+
+    @Benchmark
+    public void perDie(Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            values[i] = rng.nextInt(1, faces + 1);
+        }
+        bh.consume(values);
+    }
+
+    @Benchmark
+    public void batched(Blackhole bh) {
+        DiceBatch.fill(rng, faces, values, 0, count);
+        bh.consume(values);
+    }
+}
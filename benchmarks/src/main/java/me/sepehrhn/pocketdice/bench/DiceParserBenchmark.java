@@ -0,0 +1,61 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.DiceParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DiceParser#parse} on valid, shorthand and invalid input, the allocation-free {@link DiceParser#parseInto},
+ * and a full {@link DiceExpression#compile} (what a notation cache miss costs). Invalid input pays for the exception
+ * in {@code parse} and {@code compile}; run with the GC profiler to see it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiceParserBenchmark {
+
+    @Param({"valid", "shorthand", "invalid"})
+    public String input;
+
+    private String notation;
+    private DiceParser.MutableDiceSpec spec;
+
+    @Setup
+    public void setup() {
+        notation = switch (input) {
+            case "valid" -> "  12d20 ";
+            case "shorthand" -> "d100";
+            default -> "12x20";
+        };
+        spec = new DiceParser.MutableDiceSpec();
+    }
+
+    @Benchmark
+    public Object parse() {
+        try {
+            return DiceParser.parse(notation, true);
+        } catch (DiceParser.DiceParseException ex) {
+            return ex.getError();
+        }
+    }
+
+    @Benchmark
+    public Object parseInto() {
+        DiceParser.ParseError error = DiceParser.parseInto(notation, true, spec);
+        return error != null ? error : spec;
+    }
+
+    @Benchmark
+    public Object compile() {
+        try {
+            return DiceExpression.compile(notation, true);
+        } catch (DiceParser.DiceParseException ex) {
+            return ex.getError();
+        }
+    }
+}
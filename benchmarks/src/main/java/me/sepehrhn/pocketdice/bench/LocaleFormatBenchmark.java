@@ -0,0 +1,78 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.locale.MessageTemplate;
+import me.sepehrhn.pocketdice.util.Text;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locale message rendering: the previous copy-and-replace formatter followed by a MiniMessage parse, against
+ * precompiled {@link MessageTemplate}s. {@code rollResult} has four placeholders; {@code constant} has none
+ * besides the prefix, so the template can hand back its cached component.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleFormatBenchmark {
+
+    private static final String PREFIX = "<aqua>[PocketDice]</aqua> ";
+    private static final String ROLL_RESULT = "{prefix}<gray>{player}</gray> <yellow>rolled</yellow> <gold>{notation}</gold>"
+            + "<gray>:</gray> <aqua>{results}</aqua> <gray>(total</gray> <green>{total}</green><gray>)</gray>";
+    private static final String CONSTANT = "{prefix}<red>You don't have permission to do that.</red>";
+
+    @Param({"rollResult", "constant"})
+    public String message;
+
+    private String raw;
+    private Map<String, String> placeholders;
+    private MessageTemplate template;
+
+    @Setup
+    public void setup() {
+        raw = message.equals("rollResult") ? ROLL_RESULT : CONSTANT;
+        placeholders = message.equals("rollResult")
+                ? Map.of("player", "Alex", "notation", "4d6kh3", "results", "[6, 5, (2), 4]", "total", "15")
+                : Map.of();
+        template = MessageTemplate.compile(raw, Map.of("prefix", PREFIX));
+    }
+
+    @Benchmark
+    public String formatBefore() {
+        return legacyFormat(raw, placeholders);
+    }
+
+    @Benchmark
+    public String formatAfter() {
+        return template.render(placeholders);
+    }
+
+    @Benchmark
+    public Component formatAndParseBefore() {
+        return Text.toComponent(legacyFormat(raw, placeholders));
+    }
+
+    @Benchmark
+    public Component formatAndParseAfter() {
+        return template.toComponent(placeholders);
+    }
+
+    /** The pre-template LocaleManager.format: map copy, prefix lookup, one replace pass per placeholder. */
+    private static String legacyFormat(String message, Map<String, String> placeholders) {
+        Map<String, String> mutable = new HashMap<>(placeholders);
+        if (!mutable.containsKey("prefix")) {
+            mutable.put("prefix", PREFIX);
+        }
+        for (Map.Entry<String, String> entry : mutable.entrySet()) {
+            String val = entry.getValue() == null ? "" : entry.getValue();
+            message = message.replace("{" + entry.getKey() + "}", val);
+        }
+        return message;
+    }
+}
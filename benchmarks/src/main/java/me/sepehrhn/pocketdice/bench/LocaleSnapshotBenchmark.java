@@ -0,0 +1,60 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.locale.LocaleManager;
+import net.kyori.adventure.text.Component;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message lookup and rendering through a {@link LocaleManager.Snapshot} compiled from the bundled {@code en_US.yml},
+ * which is what every locale message goes through. {@code fallback} asks for a locale that is not loaded, so the
+ * lookup falls back to the default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleSnapshotBenchmark {
+
+    private static final Map<String, String> ROLL = Map.of(
+            "player", "Alex", "notation", "4d6kh3", "results", "[6, 5, (2), 4]", "total", "15");
+
+    @Param({"en_US", "fallback"})
+    public String locale;
+
+    private LocaleManager.Snapshot snapshot;
+
+    @Setup
+    public void setup() throws Exception {
+        YamlConfiguration yaml;
+        try (Reader in = new InputStreamReader(
+                LocaleManager.class.getClassLoader().getResourceAsStream("locale/en_US.yml"), StandardCharsets.UTF_8)) {
+            yaml = YamlConfiguration.loadConfiguration(in);
+        }
+        snapshot = LocaleManager.compile(Map.of("en_US", yaml));
+        if (locale.equals("fallback")) locale = "xx_XX";
+    }
+
+    @Benchmark
+    public String rollResult() {
+        return snapshot.get(locale, "messages.roll.result", ROLL);
+    }
+
+    @Benchmark
+    public Component rollResultComponent() {
+        return snapshot.component(locale, "messages.roll.result", ROLL);
+    }
+
+    @Benchmark
+    public Component constantComponent() {
+        return snapshot.component(locale, "messages.command.no_permission", Map.of());
+    }
+}
@@ -0,0 +1,67 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.spatial.CellGrid;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius broadcast lookup: the old scan over every player in the world (copying each position, as
+ * {@code Player#getLocation()} does) against a {@link CellGrid} query. Players are spread over 1000x1000 blocks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadiusQueryBenchmark {
+
+    @Param({"10", "50", "100", "200", "1000"})
+    public int players;
+
+    @Param({"16", "64"})
+    public int radius;
+
+    private double[][] positions;
+    private CellGrid<Integer> grid;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setup() {
+        var rng = new SplittableRandom(42);
+        positions = new double[players][];
+        grid = new CellGrid<>();
+        for (int i = 0; i < players; i++) {
+            positions[i] = new double[]{rng.nextDouble(-500, 500), rng.nextDouble(60, 80), rng.nextDouble(-500, 500)};
+            grid.update(i, positions[i][0], positions[i][1], positions[i][2]);
+        }
+        // Queries start at player positions, like a player running /roll
+        queries = new double[256][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = positions[rng.nextInt(players)];
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        double[] origin = queries[next++ & 255];
+        double r2 = (double) radius * radius;
+        for (double[] p : positions) {
+            double[] location = p.clone(); // stands in for the Location copy made per player
+            double dx = location[0] - origin[0], dy = location[1] - origin[1], dz = location[2] - origin[2];
+            if (dx * dx + dy * dy + dz * dz <= r2) {
+                bh.consume(location);
+            }
+        }
+    }
+
+    @Benchmark
+    public void cellGrid(Blackhole bh) {
+        double[] origin = queries[next++ & 255];
+        grid.forEachWithin(origin[0], origin[1], origin[2], radius, bh::consume);
+    }
+}
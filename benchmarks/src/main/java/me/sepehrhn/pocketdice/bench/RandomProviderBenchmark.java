@@ -0,0 +1,55 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.random.RandomProvider;
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the configurable RNG providers when driving the /roll dice loop.
+ * Run with {@code -t 4} as well to see how the per-thread streams behave under contention.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomProviderBenchmark {
+
+    @Param({"ThreadLocalRandom", "L64X128MixRandom", "SplittableRandom", "seeded"})
+    public String provider;
+
+    @Param({"1d100", "10d6", "50d20"})
+    public String notation;
+
+    private RandomProvider randomProvider;
+    private DiceExpression expression;
+    private RollResult result;
+
+    @Setup
+    public void setup() {
+        randomProvider = provider.equals("seeded")
+                ? RandomProvider.create(RandomProvider.DEFAULT_SEEDED_ALGORITHM, 42L)
+                : RandomProvider.create(provider, 0L);
+        expression = DiceExpression.compile(notation, true);
+        result = new RollResult();
+    }
+
+    @Benchmark
+    public long rollExpression() {
+        return expression.evaluate(randomProvider.current(), result).total();
+    }
+
+    @Benchmark
+    public long nextIntOnly() {
+        var rng = randomProvider.current();
+        long total = 0;
+        for (int i = 0; i < expression.diceCount(); i++) {
+            total += rng.nextInt(1, expression.maxFaces() + 1);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,53 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.NotationCache;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dice loop of {@code /roll}: notation cache lookup, evaluation into the thread's reusable {@link RollResult},
+ * and the rendered result text that goes into the message. {@code uncached} compiles the notation every time, as a
+ * cache miss does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RollPathBenchmark {
+
+    @Param({"1d20", "4d6kh3", "3d6!+2", "10d6", "50d100"})
+    public String notation;
+
+    private NotationCache cache;
+    private SplittableRandom rng;
+
+    @Setup
+    public void setup() {
+        cache = new NotationCache(256, true, 50, 1000, 100);
+        rng = new SplittableRandom(42);
+        cache.get(notation);
+    }
+
+    @Benchmark
+    public String cached() {
+        DiceExpression expression = cache.get(notation);
+        return expression.evaluate(rng, RollResult.local()).text();
+    }
+
+    @Benchmark
+    public String uncached() {
+        DiceExpression expression = DiceExpression.compile(notation, true).applyLimits(50, 1000, 100);
+        return expression.evaluate(rng, RollResult.local()).text();
+    }
+
+    @Benchmark
+    public long evaluateOnly() {
+        return cache.get(notation).evaluate(rng, RollResult.local()).total();
+    }
+}
@@ -0,0 +1,48 @@
+package me.sepehrhn.pocketdice.bench;
+
+import me.sepehrhn.pocketdice.util.Text;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link Text} helpers used outside locale templates: pairwise {@link Text#format} and the MiniMessage parse in
+ * {@link Text#toComponent}, on a short plain line and on the styled roll result line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+    private static final String PLAIN = "{player} rolled {total}";
+    private static final String STYLED = "<aqua>[PocketDice]</aqua> <gray>{player}</gray> <yellow>rolled</yellow> "
+            + "<gold>{notation}</gold><gray>:</gray> <aqua>{results}</aqua> <gray>(total</gray> <green>{total}</green>"
+            + "<gray>)</gray>";
+
+    @Param({"plain", "styled"})
+    public String message;
+
+    private String template;
+    private String rendered;
+
+    @Setup
+    public void setup() {
+        template = message.equals("plain") ? PLAIN : STYLED;
+        rendered = format();
+    }
+
+    @Benchmark
+    public String format() {
+        return Text.format(template, "player", "Alex", "notation", "4d6kh3", "results", "[6, 5, (2), 4]",
+                "total", "15");
+    }
+
+    @Benchmark
+    public Component toComponent() {
+        return Text.toComponent(rendered);
+    }
+}
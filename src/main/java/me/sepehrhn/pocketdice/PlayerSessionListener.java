@@ -0,0 +1,25 @@
+package me.sepehrhn.pocketdice;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/** Releases per-player state when a player leaves. */
+public class PlayerSessionListener implements Listener {
+
+    private final PocketDice plugin;
+
+    public PlayerSessionListener(PocketDice plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID player = event.getPlayer().getUniqueId();
+        plugin.getRateLimiter().forget(player);
+        plugin.getRollHistory().forget(player);
+    }
+}
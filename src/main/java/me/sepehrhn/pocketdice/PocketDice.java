@@ -1,37 +1,92 @@
 // File: D:\PocketDice\src\main\java\me\sepehrhn\pocketdice\PocketDice.java
 package me.sepehrhn.pocketdice;
 
+import me.sepehrhn.pocketdice.audit.AuditLog;
 import me.sepehrhn.pocketdice.commands.PocketDiceAdminCommand;
 import me.sepehrhn.pocketdice.commands.RollCommand;
 import me.sepehrhn.pocketdice.config.ConfigUpdater;
+import me.sepehrhn.pocketdice.config.LoadSettings;
+import me.sepehrhn.pocketdice.config.RollSettings;
+import me.sepehrhn.pocketdice.history.RollHistory;
+import me.sepehrhn.pocketdice.load.LoadMonitor;
 import me.sepehrhn.pocketdice.locale.LocaleManager;
+import me.sepehrhn.pocketdice.metrics.LatencyMetrics;
+import me.sepehrhn.pocketdice.metrics.LatencyStage;
+import me.sepehrhn.pocketdice.metrics.PluginCounters;
+import me.sepehrhn.pocketdice.metrics.PrometheusExporter;
+import me.sepehrhn.pocketdice.random.RandomProvider;
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
+import me.sepehrhn.pocketdice.spatial.PlayerIndex;
+import me.sepehrhn.pocketdice.stats.RollStats;
+import me.sepehrhn.pocketdice.update.UpdateCheckResult;
+import me.sepehrhn.pocketdice.update.UpdateCheckStatus;
 import me.sepehrhn.pocketdice.update.UpdateChecker;
 import me.sepehrhn.pocketdice.update.UpdateNotifyListener;
+import me.sepehrhn.pocketdice.util.NotationCache;
+import me.sepehrhn.pocketdice.util.RateLimiter;
+import me.sepehrhn.pocketdice.util.RollSimulator;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PocketDice extends JavaPlugin {
 
+    private final LatencyMetrics latencyMetrics = new LatencyMetrics(true);
+    private final PluginCounters counters = new PluginCounters();
+    private volatile PrometheusExporter prometheusExporter;
+    private TaskScheduler taskScheduler;
+    private volatile FileConfiguration config;
     private UpdateChecker updateChecker;
     private LocaleManager localeManager;
+    private NotationCache notationCache;
+    private volatile RollSettings rollSettings;
+    private volatile RandomProvider randomProvider;
+    private RateLimiter rateLimiter;
+    private LoadMonitor loadMonitor;
+    private RollHistory rollHistory;
+    private volatile AuditLog auditLog;
+    private volatile RollStats rollStats;
+    private RollSimulator simulator;
+    private PlayerIndex playerIndex;
 
     @Override
     public void onEnable() {
+        taskScheduler = TaskScheduler.create(this);
         saveDefaultConfig();
+        long configStart = latencyMetrics.start();
         try {
             ConfigUpdater.updateConfig(this);
         } catch (IOException | IllegalStateException e) {
             getLogger().severe("Failed to update config.yml: " + e.getMessage());
         }
+        latencyMetrics.lap(LatencyStage.CONFIG_UPDATE, configStart);
         reloadConfig();
+        refreshLatencyMetrics();
 
         localeManager = new LocaleManager(this);
         localeManager.reload();
 
+        refreshRollSettings();
+        refreshNotationCache();
+        refreshRandomProvider();
+        refreshRateLimiter();
+        refreshRollHistory();
+        refreshRollStats();
+        swapIo(prepareIo(getConfig()));
+        refreshLoadMonitor();
+        refreshSimulator();
         initUpdateChecker();
 
         getServer().getPluginManager().registerEvents(new UpdateNotifyListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerSessionListener(this), this);
+
+        // Players already online (e.g. after /reload) are indexed once; events keep the index current after that
+        playerIndex = new PlayerIndex();
+        getServer().getPluginManager().registerEvents(playerIndex, this);
+        getServer().getOnlinePlayers().forEach(p -> taskScheduler.runAtEntity(p, () -> playerIndex.track(p)));
 
         // /roll command
         var roll = getCommand("roll");
@@ -53,23 +108,223 @@ public class PocketDice extends JavaPlugin {
             getLogger().warning("Command 'pocketdice' not found in plugin.yml!");
         }
 
+        RollSettings settings = rollSettings;
         getLogger().info(() -> String.format(
                 "PocketDice enabled. radius=%d default=%s caps=%dd%d",
-                getConfig().getInt("radius", 16),
-                getConfig().getString("default_notation", "1d100"),
-                getConfig().getInt("max_dice", 50),
-                getConfig().getInt("max_faces", 1000)
+                settings.radius(),
+                settings.defaultNotation(),
+                settings.maxDice(),
+                settings.maxFaces()
         ));
     }
 
     @Override
     public void onDisable() {
+        if (prometheusExporter != null) {
+            prometheusExporter.close();
+            prometheusExporter = null;
+        }
         if (updateChecker != null) {
             updateChecker.shutdown();
         }
+        if (simulator != null) {
+            simulator.shutdownNow();
+        }
+        if (loadMonitor != null) {
+            loadMonitor.stop();
+        }
+        if (rollStats != null) {
+            rollStats.stop();
+        }
+        if (auditLog != null) {
+            auditLog.close();
+            auditLog = null;
+        }
+        if (playerIndex != null) {
+            playerIndex.clear();
+        }
+        if (rateLimiter != null) {
+            rateLimiter.clear();
+        }
+        if (rollHistory != null) {
+            rollHistory.clear();
+        }
+        if (taskScheduler != null) {
+            taskScheduler.cancelAll();
+        }
         getLogger().info("PocketDice disabled.");
     }
 
+    /** The live config.yml; replaced as a whole by {@link #reloadConfig} or {@link #applyReload}, never edited in place. */
+    @Override
+    public FileConfiguration getConfig() {
+        FileConfiguration current = config;
+        if (current == null) {
+            reloadConfig();
+            current = config;
+        }
+        return current;
+    }
+
+    @Override
+    public void reloadConfig() {
+        config = ConfigUpdater.loadConfig(this);
+    }
+
+    /**
+     * Publish a config and locale set that was loaded off-thread, then rebuild what derives from them.
+     * Call on the global thread; rolls already running keep the settings and messages they started with.
+     *
+     * @param io what {@link #prepareIo} opened for {@code loaded}
+     * @return the audit log and exporter that were replaced; close them off the main thread
+     */
+    public List<AutoCloseable> applyReload(FileConfiguration loaded, RollSettings settings,
+                                           LocaleManager.Snapshot locales, PreparedIo io) {
+        config = loaded;
+        rollSettings = settings;
+        refreshLatencyMetrics();
+        localeManager.apply(locales);
+        refreshNotationCache();
+        refreshRandomProvider();
+        refreshRateLimiter();
+        refreshRollHistory();
+        refreshRollStats();
+        refreshLoadMonitor();
+        refreshSimulator();
+        restartUpdateChecker();
+        // Last, so a failure above leaves the prepared I/O unused and the caller can discard it
+        return swapIo(io);
+    }
+
+    /**
+     * The audit log and Prometheus endpoint a config asks for, with whatever has to be newly opened already open.
+     * Opening touches the disk and binds a socket, so reloads call this off the main thread; {@link #applyReload}
+     * then only swaps references.
+     *
+     * @param auditOptions   audit log settings, or {@code null} when the log is off
+     * @param auditLog       a log opened because none was running, or {@code null}
+     * @param prometheusPort port to serve on, or 0 when the endpoint is off
+     * @param exporter       an endpoint started because the port changed or none was running, or {@code null}
+     */
+    public record PreparedIo(AuditLog.Options auditOptions, AuditLog auditLog, int prometheusPort,
+                             PrometheusExporter exporter) {
+
+        /** Close what was opened, for a reload that is abandoned before it is applied. */
+        public void discard() {
+            if (auditLog != null) auditLog.close();
+            if (exporter != null) exporter.close();
+        }
+    }
+
+    /**
+     * Open what {@code loaded} needs and is not running yet. Never opens a second audit log on the same folder: a
+     * running log is reconfigured in place when it is swapped.
+     */
+    public PreparedIo prepareIo(FileConfiguration loaded) {
+        AuditLog.Options auditOptions = null;
+        AuditLog openedLog = null;
+        if (loaded.getBoolean("audit.enabled", false)) {
+            long segmentMb = Math.max(1L, Math.min(1024L, loaded.getLong("audit.segment_mb", 16L)));
+            auditOptions = new AuditLog.Options(segmentMb << 20,
+                    Math.max(0L, loaded.getLong("audit.flush_interval_ms", 1000L)),
+                    Math.max(1, loaded.getInt("audit.max_pending", 65_536)));
+            if (auditLog == null) {
+                try {
+                    openedLog = AuditLog.open(getDataFolder().toPath().resolve("audit"), auditOptions, getLogger());
+                } catch (IOException ex) {
+                    getLogger().severe("Could not open the audit log: " + ex.getMessage());
+                    auditOptions = null;
+                }
+            }
+        }
+
+        int port = 0;
+        PrometheusExporter opened = null;
+        if (loaded.getBoolean("metrics.prometheus.enabled", false)) {
+            port = loaded.getInt("metrics.prometheus.port", 9464);
+            PrometheusExporter current = prometheusExporter;
+            if (port < 1 || port > 65535) {
+                getLogger().warning("metrics.prometheus.port must be between 1 and 65535; the exporter stays off.");
+                port = 0;
+            } else if (current == null || current.port() != port) {
+                try {
+                    opened = PrometheusExporter.start(port, counters, this::updateStatus);
+                    getLogger().info("Prometheus metrics on http://127.0.0.1:" + port + "/metrics");
+                } catch (IOException ex) {
+                    getLogger().severe("Could not start the Prometheus exporter on port " + port + ": "
+                            + ex.getMessage());
+                    port = current != null ? current.port() : 0;
+                }
+            }
+        }
+        return new PreparedIo(auditOptions, openedLog, port, opened);
+    }
+
+    /** Put prepared I/O in place and return what it replaced; only references change here. */
+    private List<AutoCloseable> swapIo(PreparedIo io) {
+        List<AutoCloseable> retired = new ArrayList<>(2);
+        AuditLog currentLog = auditLog;
+        if (io.auditOptions() == null) {
+            auditLog = null;
+            if (currentLog != null) retired.add(currentLog);
+        } else if (currentLog != null) {
+            currentLog.configure(io.auditOptions());
+        } else {
+            auditLog = io.auditLog();
+        }
+
+        PrometheusExporter currentExporter = prometheusExporter;
+        if (io.prometheusPort() == 0) {
+            prometheusExporter = null;
+            if (currentExporter != null) retired.add(currentExporter);
+        } else if (io.exporter() != null) {
+            prometheusExporter = io.exporter();
+            if (currentExporter != null) retired.add(currentExporter);
+        }
+        return retired;
+    }
+
+    /** Close what {@link #applyReload} replaced; queued audit records are written out first. */
+    public void closeRetired(List<AutoCloseable> retired) {
+        for (AutoCloseable resource : retired) {
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                getLogger().warning("Failed to close " + resource.getClass().getSimpleName() + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Folia-aware scheduler; use it instead of {@code Bukkit.getScheduler()}. */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    /** Stage timings; always present, recording only while {@code metrics.latency} is true. */
+    public LatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /** Switch stage timing on or off; turning it off also drops what was recorded. */
+    public void refreshLatencyMetrics() {
+        boolean enabled = getConfig().getBoolean("metrics.latency", true);
+        if (!enabled && latencyMetrics.isEnabled()) {
+            latencyMetrics.reset();
+        }
+        latencyMetrics.setEnabled(enabled);
+    }
+
+    /** Event counts exported by the Prometheus endpoint; always counting, whether or not it is enabled. */
+    public PluginCounters getCounters() {
+        return counters;
+    }
+
+    private UpdateCheckStatus updateStatus() {
+        UpdateChecker checker = updateChecker;
+        UpdateCheckResult result = checker == null ? null : checker.getLastResult();
+        return result == null ? UpdateCheckStatus.UNKNOWN : result.getStatus();
+    }
+
     public UpdateChecker getUpdateChecker() {
         return updateChecker;
     }
@@ -78,6 +333,158 @@ public class PocketDice extends JavaPlugin {
         return localeManager;
     }
 
+    public NotationCache getNotationCache() {
+        return notationCache;
+    }
+
+    /** Current validated roll settings; replaced as a whole on reload, so read it once per command. */
+    public RollSettings getRollSettings() {
+        return rollSettings;
+    }
+
+    /** Rebuild {@link RollSettings} from config.yml; invalid values are reported here, once. */
+    public void refreshRollSettings() {
+        rollSettings = RollSettings.load(getConfig(), getLogger());
+    }
+
+    /** Create or reconfigure the notation cache; entries are dropped when parse settings change. */
+    public void refreshNotationCache() {
+        RollSettings settings = rollSettings;
+        if (notationCache == null) {
+            notationCache = new NotationCache(settings.notationCacheSize(), settings.allowShorthand(),
+                    settings.maxDice(), settings.maxFaces(), settings.sumOnlyThreshold());
+        } else {
+            notationCache.configure(settings.notationCacheSize(), settings.allowShorthand(),
+                    settings.maxDice(), settings.maxFaces(), settings.sumOnlyThreshold());
+        }
+    }
+
+    public RandomProvider getRandomProvider() {
+        return randomProvider;
+    }
+
+    /**
+     * Rebuild the dice RNG from the {@code random} section; falls back to ThreadLocalRandom if invalid.
+     * An unchanged algorithm, seed and mode keeps the current provider, so a reload does not restart a replay stream.
+     */
+    public void refreshRandomProvider() {
+        String algorithm = getConfig().getString("random.algorithm", RandomProvider.THREAD_LOCAL_RANDOM);
+        long seed = getConfig().getLong("random.seed", 0L);
+        RandomProvider provider;
+        try {
+            provider = RandomProvider.create(algorithm, seed);
+        } catch (IllegalArgumentException ex) {
+            getLogger().warning("Unknown random.algorithm '" + algorithm + "'; using "
+                    + RandomProvider.THREAD_LOCAL_RANDOM + ".");
+            provider = RandomProvider.create(RandomProvider.THREAD_LOCAL_RANDOM, seed);
+        }
+        RandomProvider previous = randomProvider;
+        if (previous != null && previous.describe().equals(provider.describe())) {
+            return;
+        }
+        randomProvider = provider;
+        getLogger().info("Dice RNG: " + provider.describe());
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /** Create or retune the per-player roll buckets; existing buckets keep their tokens. */
+    public void refreshRateLimiter() {
+        RollSettings settings = rollSettings;
+        if (rateLimiter == null) {
+            rateLimiter = new RateLimiter(settings.rateLimitBurst(), settings.rateLimitRefillPerSecond());
+        } else {
+            rateLimiter.configure(settings.rateLimitBurst(), settings.rateLimitRefillPerSecond());
+        }
+    }
+
+    public RollHistory getRollHistory() {
+        return rollHistory;
+    }
+
+    /** Create or resize the per-player roll histories; resizing drops what was recorded so far. */
+    public void refreshRollHistory() {
+        RollSettings settings = rollSettings;
+        if (rollHistory == null) {
+            rollHistory = new RollHistory(settings.historySize(), settings.historyMaxResults());
+        } else {
+            rollHistory.configure(settings.historySize(), settings.historyMaxResults());
+        }
+    }
+
+    /** Server-wide roll counters, or {@code null} when {@code stats.enabled} is false. */
+    public RollStats getRollStats() {
+        return rollStats;
+    }
+
+    /** Create, retune or drop the roll counters from the {@code stats} section; counts survive a reload. */
+    public void refreshRollStats() {
+        RollStats current = rollStats;
+        if (!getConfig().getBoolean("stats.enabled", true)) {
+            if (current != null) {
+                rollStats = null;
+                current.stop();
+            }
+            return;
+        }
+        int[] faces = getConfig().getIntegerList("stats.histogram_faces").stream()
+                .mapToInt(Integer::intValue)
+                .filter(f -> f >= 2 && f <= 10_000)
+                .toArray();
+        int top = Math.max(0, Math.min(20, getConfig().getInt("stats.top", 5)));
+        long seconds = Math.max(1L, Math.min(300L, getConfig().getLong("stats.snapshot_seconds", 10L)));
+        if (current == null) {
+            current = new RollStats(faces, top);
+            rollStats = current;
+        } else {
+            current.configure(faces, top);
+        }
+        current.start(taskScheduler, seconds * 20L);
+    }
+
+    /** The roll audit log, or {@code null} when {@code audit.enabled} is false. */
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    public LoadMonitor getLoadMonitor() {
+        return loadMonitor;
+    }
+
+    /** Create or retune the MSPT-based load levels from the {@code load_shedding} section. */
+    public void refreshLoadMonitor() {
+        LoadSettings settings = LoadSettings.load(getConfig(), getLogger());
+        if (loadMonitor == null) {
+            loadMonitor = new LoadMonitor(getLogger(), () -> getServer().getAverageTickTime(), settings);
+            loadMonitor.start(taskScheduler);
+        } else {
+            loadMonitor.configure(settings);
+        }
+    }
+
+    public PlayerIndex getPlayerIndex() {
+        return playerIndex;
+    }
+
+    public RollSimulator getSimulator() {
+        return simulator;
+    }
+
+    /** (Re)create the simulation pool when {@code simulation.parallelism} changes; a running job still finishes. */
+    public void refreshSimulator() {
+        int parallelism = RollSimulator.resolveParallelism(getConfig().getInt("simulation.parallelism", 0));
+        if (simulator != null && simulator.parallelism() == parallelism) {
+            return;
+        }
+        RollSimulator previous = simulator;
+        simulator = new RollSimulator(parallelism);
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
     public void restartUpdateChecker() {
         initUpdateChecker();
     }
@@ -0,0 +1,165 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sparse index of one audit segment, stored next to it as {@code rolls-NNNNNN.idx}.
+ * <p>
+ * Records are grouped into blocks of {@link #BLOCK_SIZE}. For every block the index keeps the smallest and largest
+ * timestamp, and for every player a bitset of the blocks they rolled in. A query only visits blocks that overlap its
+ * time range and contain its player; everything else is skipped without being read. Building an index reads just
+ * the time and UUID fields of each record.
+ * <pre>
+ *   0  long    magic "PDAIDX" + format version
+ *   8  int     block size
+ *  12  int     records covered
+ *  16  int     blocks
+ *  20  int     players
+ *  24  long[]  smallest time per block, then long[] largest time per block
+ *      then per player: long UUID msb, long UUID lsb, long[ceil(blocks / 64)] block bits
+ * </pre>
+ */
+public final class AuditIndex {
+
+    public static final int BLOCK_SIZE = 64;
+    static final long MAGIC = 0x5044414944580001L; // "PDAIDX" 0x0001
+    static final String SUFFIX = ".idx";
+    private static final int HEADER_SIZE = 24;
+
+    private final int records;
+    private final long[] minTime;
+    private final long[] maxTime;
+    private final Map<UUID, long[]> players;
+
+    private AuditIndex(int records, long[] minTime, long[] maxTime, Map<UUID, long[]> players) {
+        this.records = records;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.players = players;
+    }
+
+    /** Index the first {@code count} records of a mapped segment. */
+    public static AuditIndex build(ByteBuffer segment, int count) {
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int words = (blocks + 63) >>> 6;
+        long[] minTime = new long[blocks];
+        long[] maxTime = new long[blocks];
+        Map<UUID, long[]> players = new HashMap<>();
+        UUID last = null;
+        long[] lastBits = null;
+        for (int block = 0; block < blocks; block++) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                int offset = AuditSegment.HEADER_SIZE + i * AuditRecord.SIZE;
+                long time = segment.getLong(offset + AuditRecord.TIME);
+                min = Math.min(min, time);
+                max = Math.max(max, time);
+                long msb = segment.getLong(offset + AuditRecord.PLAYER_MSB);
+                long lsb = segment.getLong(offset + AuditRecord.PLAYER_LSB);
+                // Consecutive rolls by the same player are common; skip the map lookup for them
+                if (last == null || last.getMostSignificantBits() != msb || last.getLeastSignificantBits() != lsb) {
+                    last = new UUID(msb, lsb);
+                    lastBits = players.computeIfAbsent(last, id -> new long[words]);
+                }
+                lastBits[block >>> 6] |= 1L << block;
+            }
+            minTime[block] = min;
+            maxTime[block] = max;
+        }
+        return new AuditIndex(count, minTime, maxTime, players);
+    }
+
+    /** Read an index file, or return {@code null} if it is missing, damaged or covers a different record count. */
+    public static AuditIndex read(Path file, int expectedRecords) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.capacity() < HEADER_SIZE || in.getLong(0) != MAGIC || in.getInt(8) != BLOCK_SIZE
+                    || in.getInt(12) != expectedRecords) {
+                return null;
+            }
+            int blocks = in.getInt(16);
+            int playerCount = in.getInt(20);
+            int words = (blocks + 63) >>> 6;
+            if (blocks != (expectedRecords + BLOCK_SIZE - 1) / BLOCK_SIZE
+                    || in.capacity() != HEADER_SIZE + 16L * blocks + (long) playerCount * (16 + 8L * words)) {
+                return null;
+            }
+            int at = HEADER_SIZE;
+            long[] minTime = new long[blocks];
+            long[] maxTime = new long[blocks];
+            for (int b = 0; b < blocks; b++, at += 8) minTime[b] = in.getLong(at);
+            for (int b = 0; b < blocks; b++, at += 8) maxTime[b] = in.getLong(at);
+            Map<UUID, long[]> players = new HashMap<>(playerCount * 2);
+            for (int p = 0; p < playerCount; p++) {
+                UUID id = new UUID(in.getLong(at), in.getLong(at + 8));
+                at += 16;
+                long[] bits = new long[words];
+                for (int w = 0; w < words; w++, at += 8) bits[w] = in.getLong(at);
+                players.put(id, bits);
+            }
+            return new AuditIndex(expectedRecords, minTime, maxTime, players);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /** Write the index atomically (temporary file, then rename). */
+    public void write(Path file) throws IOException {
+        int blocks = minTime.length;
+        int words = (blocks + 63) >>> 6;
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 16 * blocks + players.size() * (16 + 8 * words));
+        out.putLong(MAGIC).putInt(BLOCK_SIZE).putInt(records).putInt(blocks).putInt(players.size());
+        for (long t : minTime) out.putLong(t);
+        for (long t : maxTime) out.putLong(t);
+        for (Map.Entry<UUID, long[]> player : players.entrySet()) {
+            out.putLong(player.getKey().getMostSignificantBits()).putLong(player.getKey().getLeastSignificantBits());
+            for (long word : player.getValue()) out.putLong(word);
+        }
+        out.flip();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int records() {
+        return records;
+    }
+
+    public int blocks() {
+        return minTime.length;
+    }
+
+    /** True if block {@code block} may hold records in {@code [from, to]} by {@code player} (null = anyone). */
+    public boolean mayMatch(int block, UUID player, long from, long to) {
+        if (maxTime[block] < from || minTime[block] > to) return false;
+        if (player == null) return true;
+        long[] bits = players.get(player);
+        return bits != null && (bits[block >>> 6] & 1L << block) != 0;
+    }
+
+    /** True if {@code player} rolled anywhere in this segment (null = anyone). */
+    public boolean contains(UUID player) {
+        return player == null || players.containsKey(player);
+    }
+
+    static Path pathFor(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - AuditSegment.SUFFIX.length()) + SUFFIX);
+    }
+}
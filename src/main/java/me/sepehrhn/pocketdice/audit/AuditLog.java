@@ -0,0 +1,320 @@
+package me.sepehrhn.pocketdice.audit;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary log of every roll, written to memory-mapped segment files.
+ * <p>
+ * The roll path only builds an {@link AuditRecord} and offers it to a lock-free queue. A single writer thread drains
+ * the queue into the current segment's mapping, and forces the mapping to disk at most once per flush interval, so
+ * any number of rolls share one fsync. Segments are preallocated to a fixed size and a new one is started when the
+ * current one is full; writing after a restart continues in the newest segment while it has room, so restarts do not
+ * leave a trail of mostly empty preallocated files. See {@link AuditSegment} for the file layout. A finished segment gets an {@link AuditIndex}
+ * written next to it for {@link AuditReader}. If the writer falls behind by more than {@code maxPending} records,
+ * new records are dropped and counted rather than queued without bound, as are records appended after
+ * {@link #close()}.
+ */
+public final class AuditLog implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Path directory;
+    private volatile Options options;
+    private final Logger logger;
+    private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private FileChannel channel;
+    private MappedByteBuffer mapping;
+    private Path segmentFile;
+    private int sequence;
+    private int resumeSequence;
+    private int capacity;
+    private int count;
+    private long firstTime;
+    private long lastTime;
+    private boolean dirty;
+    private boolean failed;
+
+    /**
+     * @param segmentBytes  size of each segment file, header included
+     * @param flushInterval milliseconds between forced writes while records arrive
+     * @param maxPending    records allowed to wait for the writer before new ones are dropped
+     */
+    public record Options(long segmentBytes, long flushInterval, int maxPending) {
+        public Options {
+            if (segmentBytes < AuditSegment.HEADER_SIZE + AuditRecord.SIZE || segmentBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("segment size out of range: " + segmentBytes);
+            }
+        }
+
+        int recordsPerSegment() {
+            return (int) ((segmentBytes - AuditSegment.HEADER_SIZE) / AuditRecord.SIZE);
+        }
+    }
+
+    private AuditLog(Path directory, Options options, Logger logger) {
+        this.directory = directory;
+        this.options = options;
+        this.logger = logger;
+        this.writer = new Thread(this::drainLoop, "PocketDice-Audit");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Open the log in {@code directory}. The first record goes into the newest existing segment if it still has room,
+     * otherwise into a new segment after it.
+     */
+    public static AuditLog open(Path directory, Options options, Logger logger) throws IOException {
+        Files.createDirectories(directory);
+        AuditLog log = new AuditLog(directory, options, logger);
+        try (Stream<Path> files = Files.list(directory)) {
+            log.sequence = files.mapToInt(AuditSegment::sequenceOf).max().orElse(0);
+        }
+        log.resumeSequence = log.sequence;
+        log.writer.start();
+        return log;
+    }
+
+    /** Copy what the audit needs out of a (reusable) {@link RollResult}. */
+    public static AuditRecord capture(UUID player, DiceExpression expression, RollResult result,
+                                      String world, int x, int y, int z) {
+        int rolled = result.size();
+        int[] values = new int[Math.min(rolled, AuditRecord.MAX_RESULTS)];
+        for (int i = 0; i < values.length; i++) {
+            int value = result.value(i) & AuditRecord.VALUE_MASK;
+            if (result.isDropped(i)) value |= AuditRecord.DROPPED;
+            if (result.isExploded(i)) value |= AuditRecord.EXPLODED;
+            values[i] = value;
+        }
+        return new AuditRecord(System.currentTimeMillis(), player, expression.notation(), expression.diceCount(),
+                expression.maxFaces(), result.total(), values, rolled, world, x, y, z);
+    }
+
+    /**
+     * Queue a record for the writer.
+     *
+     * @return false if the record was dropped because the log is closed or too far behind
+     */
+    public boolean append(AuditRecord record) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        // Every increment below is paired with a decrement here, by the writer, or by the close() check
+        if (pending.incrementAndGet() > options.maxPending()) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(record);
+        if (!running && queue.remove(record)) {
+            // close() ran between the check and the offer and the writer may already be gone
+            pending.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public Options options() {
+        return options;
+    }
+
+    /**
+     * Apply new options without reopening: the flush interval and queue limit take effect at once, a new segment size
+     * with the next segment.
+     */
+    public void configure(Options updated) {
+        options = updated;
+        LockSupport.unpark(writer);
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int pending() {
+        return Math.max(0, pending.get());
+    }
+
+    /** Stop accepting records, write out what is queued, force it to disk and wait for the writer. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            long flushInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, options.flushInterval()));
+            AuditRecord record;
+            while ((record = queue.poll()) != null) {
+                pending.decrementAndGet();
+                write(record);
+            }
+            long now = System.nanoTime();
+            if (dirty && (stopping || now - lastFlush >= flushInterval)) {
+                flush();
+                lastFlush = now;
+            }
+            if (stopping) {
+                closeSegment();
+                return;
+            }
+            LockSupport.parkNanos(this, Math.min(IDLE_PARK_NANOS, Math.max(1L, flushInterval)));
+        }
+    }
+
+    private void write(AuditRecord record) {
+        if (failed) {
+            dropped.increment();
+            return;
+        }
+        try {
+            if (mapping == null || count == capacity) {
+                rotate();
+            }
+            record.encode(mapping, AuditSegment.HEADER_SIZE + count * AuditRecord.SIZE);
+            if (count == 0) firstTime = record.time();
+            lastTime = record.time();
+            count++;
+            dirty = true;
+            written.increment();
+        } catch (IOException | RuntimeException ex) {
+            // A full disk or a vanished folder should not take the writer down with every later roll
+            failed = true;
+            dropped.increment();
+            logger.log(Level.SEVERE, "Audit log writing stopped: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        int resume = resumeSequence;
+        resumeSequence = 0;
+        if (resume > 0 && resume(directory.resolve(AuditSegment.fileName(resume)))) {
+            return;
+        }
+        sequence++;
+        Path file = directory.resolve(AuditSegment.fileName(sequence));
+        segmentFile = file;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Options current = options;
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, current.segmentBytes());
+        capacity = current.recordsPerSegment();
+        count = 0;
+        firstTime = 0L;
+        lastTime = 0L;
+        AuditSegment.writeHeader(mapping, System.currentTimeMillis(), 0, 0L, 0L);
+        dirty = true;
+    }
+
+    /** Continue writing into a segment left by an earlier run; false if it is full or not a valid segment. */
+    private boolean resume(Path file) throws IOException {
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Keep the file's own size: it may have been created with a different audit.segment_mb
+            long bytes = opened.size();
+            if (bytes < AuditSegment.HEADER_SIZE + AuditRecord.SIZE || bytes > Integer.MAX_VALUE) {
+                opened.close();
+                return false;
+            }
+            MappedByteBuffer mapped = opened.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            int committed = AuditSegment.readCount(mapped);
+            int fits = (int) ((bytes - AuditSegment.HEADER_SIZE) / AuditRecord.SIZE);
+            if (committed >= fits) {
+                opened.close();
+                return false;
+            }
+            // The index describes fewer records than the segment will hold; closeSegment writes a new one
+            Files.deleteIfExists(AuditIndex.pathFor(file));
+            channel = opened;
+            mapping = mapped;
+            segmentFile = file;
+            capacity = fits;
+            count = committed;
+            firstTime = AuditSegment.firstTime(mapped);
+            lastTime = AuditSegment.lastTime(mapped);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            // Not a segment after all, or a header from a future format
+            opened.close();
+            return false;
+        } catch (IOException | RuntimeException ex) {
+            opened.close();
+            throw ex;
+        }
+    }
+
+    private void flush() {
+        if (mapping == null) return;
+        AuditSegment.updateCount(mapping, count, firstTime, lastTime);
+        try {
+            mapping.force();
+        } catch (RuntimeException ex) {
+            logger.warning("Failed to flush audit segment: " + ex.getMessage());
+        }
+        dirty = false;
+    }
+
+    private void closeSegment() {
+        if (channel == null) return;
+        flush();
+        if (count > 0) {
+            try {
+                AuditIndex.build(mapping, count).write(AuditIndex.pathFor(segmentFile));
+            } catch (IOException | RuntimeException ex) {
+                // Queries still work without it, just by scanning the whole segment
+                logger.warning("Failed to write audit index for " + segmentFile.getFileName() + ": " + ex.getMessage());
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close audit segment: " + ex.getMessage());
+        }
+        channel = null;
+        mapping = null;
+        segmentFile = null;
+    }
+}
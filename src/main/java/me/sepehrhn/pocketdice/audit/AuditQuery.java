@@ -0,0 +1,130 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter over audit records. Every criterion is optional; an unset one matches anything.
+ * <p>
+ * {@link #matches(ByteBuffer, int)} tests a record where it lies in the mapped segment, reading only the fields the
+ * filter uses and comparing the world name as raw bytes, so records that do not match are never decoded.
+ */
+public final class AuditQuery {
+
+    public static final AuditQuery ALL = new AuditQuery(null, null, 0, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final UUID player;
+    private final String world;
+    private final byte[] worldBytes;
+    private final int faces;
+    private final long from;
+    private final long to;
+
+    /**
+     * @param player only rolls by this player, or {@code null}
+     * @param world  only rolls in this world, or {@code null}
+     * @param faces  only rolls whose largest die has this many faces, or 0
+     * @param from   earliest time, epoch millis inclusive
+     * @param to     latest time, epoch millis inclusive
+     */
+    public AuditQuery(UUID player, String world, int faces, long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("from is after to");
+        }
+        this.player = player;
+        // Compare against what the writer could actually have stored
+        this.worldBytes = world == null ? null : AuditRecord.fieldBytes(world, AuditRecord.WORLD_BYTES);
+        this.world = world == null ? null : new String(worldBytes, StandardCharsets.UTF_8);
+        this.faces = Math.max(0, faces);
+        this.from = from;
+        this.to = to;
+    }
+
+    public AuditQuery withPlayer(UUID value) {
+        return new AuditQuery(value, world, faces, from, to);
+    }
+
+    public AuditQuery withWorld(String value) {
+        return new AuditQuery(player, value, faces, from, to);
+    }
+
+    public AuditQuery withFaces(int value) {
+        return new AuditQuery(player, world, value, from, to);
+    }
+
+    public AuditQuery between(long fromMillis, long toMillis) {
+        return new AuditQuery(player, world, faces, fromMillis, toMillis);
+    }
+
+    public UUID player() {
+        return player;
+    }
+
+    public String world() {
+        return world;
+    }
+
+    public int faces() {
+        return faces;
+    }
+
+    public long from() {
+        return from;
+    }
+
+    public long to() {
+        return to;
+    }
+
+    /** True if the record at {@code offset} matches. */
+    public boolean matches(ByteBuffer in, int offset) {
+        long time = in.getLong(offset + AuditRecord.TIME);
+        if (time < from || time > to) return false;
+        if (player != null && (in.getLong(offset + AuditRecord.PLAYER_MSB) != player.getMostSignificantBits()
+                || in.getLong(offset + AuditRecord.PLAYER_LSB) != player.getLeastSignificantBits())) {
+            return false;
+        }
+        if (faces > 0 && in.getInt(offset + AuditRecord.FACES) != faces) return false;
+        return worldBytes == null || worldEquals(in, offset + AuditRecord.WORLD);
+    }
+
+    private boolean worldEquals(ByteBuffer in, int offset) {
+        if ((in.get(offset) & 0xFF) != worldBytes.length) return false;
+        for (int i = 0; i < worldBytes.length; i++) {
+            if (in.get(offset + 1 + i) != worldBytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a duration such as {@code 45s}, {@code 30m}, {@code 2h} or {@code 7d} into milliseconds.
+     *
+     * @throws IllegalArgumentException if the text is not a positive number followed by s, m, h or d
+     */
+    public static long parseDuration(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        if (value.length() < 2) {
+            throw new IllegalArgumentException("invalid duration: " + text);
+        }
+        TimeUnit unit = switch (value.charAt(value.length() - 1)) {
+            case 's' -> TimeUnit.SECONDS;
+            case 'm' -> TimeUnit.MINUTES;
+            case 'h' -> TimeUnit.HOURS;
+            case 'd' -> TimeUnit.DAYS;
+            default -> throw new IllegalArgumentException("invalid duration: " + text);
+        };
+        long amount;
+        try {
+            amount = Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid duration: " + text);
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("invalid duration: " + text);
+        }
+        return unit.toMillis(amount);
+    }
+}
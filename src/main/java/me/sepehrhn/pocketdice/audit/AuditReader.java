@@ -0,0 +1,119 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads audit segments back, for {@code /pocketdice audit} and {@link AuditTool}.
+ * <p>
+ * Each segment is mapped read-only. Segments whose header time range misses the query are skipped outright; inside a
+ * segment, its {@link AuditIndex} (when present and current) rules out whole blocks by time and player, and the rest
+ * are tested in place with {@link AuditQuery#matches}. Only matching records are decoded. Segments without an index,
+ * such as the one being written, are scanned record by record. Safe to run while the log is being written: only
+ * records counted in a segment's header are read.
+ */
+public final class AuditReader {
+
+    private AuditReader() {
+    }
+
+    /**
+     * What a query touched.
+     *
+     * @param segments        segment files found
+     * @param segmentsScanned segments that had to be opened
+     * @param recordsTested   records whose fields were compared
+     * @param matches         records passed to the visitor
+     * @param nanos           wall time of the query
+     */
+    public record Stats(int segments, int segmentsScanned, long recordsTested, long matches, long nanos) {
+    }
+
+    /** Segment files in {@code directory}, oldest first. */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> AuditSegment.sequenceOf(file) > 0)
+                    .sorted(Comparator.comparingInt(AuditSegment::sequenceOf))
+                    .toList();
+        }
+    }
+
+    /**
+     * Pass up to {@code limit} matching records to {@code visitor}, oldest or newest first. Damaged segments are
+     * skipped.
+     */
+    public static Stats query(Path directory, AuditQuery query, int limit, boolean newestFirst,
+                              Consumer<AuditRecord> visitor) throws IOException {
+        long started = System.nanoTime();
+        List<Path> files = segments(directory);
+        int scanned = 0;
+        long tested = 0;
+        long matches = 0;
+        for (int s = 0; s < files.size() && matches < limit; s++) {
+            Path file = files.get(newestFirst ? files.size() - 1 - s : s);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int count = AuditSegment.readCount(in);
+                if (count == 0 || AuditSegment.lastTime(in) < query.from() || AuditSegment.firstTime(in) > query.to()) {
+                    continue;
+                }
+                scanned++;
+                AuditIndex index = AuditIndex.read(AuditIndex.pathFor(file), count);
+                if (index != null && !index.contains(query.player())) continue;
+
+                int blocks = index == null ? 1 : index.blocks();
+                int blockSize = index == null ? count : AuditIndex.BLOCK_SIZE;
+                for (int b = 0; b < blocks && matches < limit; b++) {
+                    int block = newestFirst ? blocks - 1 - b : b;
+                    if (index != null && !index.mayMatch(block, query.player(), query.from(), query.to())) continue;
+                    int start = block * blockSize;
+                    int end = Math.min(count, start + blockSize);
+                    for (int i = 0; i < end - start && matches < limit; i++) {
+                        int at = newestFirst ? end - 1 - i : start + i;
+                        int offset = AuditSegment.HEADER_SIZE + at * AuditRecord.SIZE;
+                        tested++;
+                        if (query.matches(in, offset)) {
+                            matches++;
+                            visitor.accept(AuditRecord.decode(in, offset));
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException ex) {
+                // Not a segment after all, or a header from a future format; nothing in it is trustworthy
+            }
+        }
+        return new Stats(files.size(), scanned, tested, matches, System.nanoTime() - started);
+    }
+
+    /**
+     * Write a fresh index for every segment whose index is missing or out of date.
+     *
+     * @return indexes written
+     */
+    public static int buildIndexes(Path directory) throws IOException {
+        int built = 0;
+        for (Path file : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int count = AuditSegment.readCount(in);
+                Path indexFile = AuditIndex.pathFor(file);
+                if (count > 0 && AuditIndex.read(indexFile, count) == null) {
+                    AuditIndex.build(in, count).write(indexFile);
+                    built++;
+                }
+            } catch (IllegalArgumentException ex) {
+                // Skip files that are not segments
+            }
+        }
+        return built;
+    }
+}
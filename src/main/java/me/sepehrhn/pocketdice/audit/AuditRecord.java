@@ -0,0 +1,156 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * One audited roll, and the fixed-width binary layout it is stored in.
+ * <p>
+ * Every record takes exactly {@link #SIZE} bytes (big-endian):
+ * <pre>
+ *   0  long   time (epoch millis)       52  int    dice rolled individually
+ *   8  long   player UUID (msb)         56  byte+  world name (length, then up to 31 UTF-8 bytes)
+ *  16  long   player UUID (lsb)         88  byte+  notation (length, then up to 63 UTF-8 bytes)
+ *  24  long   total                    152  int[]  first {@link #MAX_RESULTS} dice, flags in the top bits
+ *  32  int    x, 36 y, 40 z (block)
+ *  44  int    dice requested
+ *  48  int    largest face count
+ * </pre>
+ * Strings longer than their field are cut at a character boundary. A record whose time is 0 is unused space.
+ *
+ * @param results individual dice as stored, at most {@link #MAX_RESULTS}; see {@link #DROPPED}/{@link #EXPLODED}
+ * @param rolled  dice rolled individually, which can exceed {@code results.length}
+ */
+public record AuditRecord(long time, UUID player, String notation, int dice, int faces, long total,
+                          int[] results, int rolled, String world, int x, int y, int z) {
+
+    public static final int SIZE = 256;
+    public static final int MAX_RESULTS = 26;
+    public static final int DROPPED = 1 << 30;
+    public static final int EXPLODED = 1 << 31;
+    public static final int VALUE_MASK = DROPPED - 1;
+
+    static final int TIME = 0;
+    static final int PLAYER_MSB = 8;
+    static final int PLAYER_LSB = 16;
+    static final int TOTAL = 24;
+    static final int X = 32;
+    static final int Y = 36;
+    static final int Z = 40;
+    static final int DICE = 44;
+    static final int FACES = 48;
+    static final int ROLLED = 52;
+    static final int WORLD = 56;
+    static final int WORLD_BYTES = 31;
+    static final int NOTATION = 88;
+    static final int NOTATION_BYTES = 63;
+    static final int RESULTS = 152;
+
+    /** Write this record at {@code offset} without moving the buffer's position. */
+    public void encode(ByteBuffer out, int offset) {
+        out.putLong(offset + TIME, time);
+        out.putLong(offset + PLAYER_MSB, player.getMostSignificantBits());
+        out.putLong(offset + PLAYER_LSB, player.getLeastSignificantBits());
+        out.putLong(offset + TOTAL, total);
+        out.putInt(offset + X, x);
+        out.putInt(offset + Y, y);
+        out.putInt(offset + Z, z);
+        out.putInt(offset + DICE, dice);
+        out.putInt(offset + FACES, faces);
+        out.putInt(offset + ROLLED, rolled);
+        putString(out, offset + WORLD, WORLD_BYTES, world);
+        putString(out, offset + NOTATION, NOTATION_BYTES, notation);
+        int stored = Math.min(results.length, MAX_RESULTS);
+        for (int i = 0; i < MAX_RESULTS; i++) {
+            out.putInt(offset + RESULTS + i * Integer.BYTES, i < stored ? results[i] : 0);
+        }
+    }
+
+    /** Read the record at {@code offset}. */
+    public static AuditRecord decode(ByteBuffer in, int offset) {
+        int rolled = in.getInt(offset + ROLLED);
+        int[] results = new int[Math.min(Math.max(0, rolled), MAX_RESULTS)];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = in.getInt(offset + RESULTS + i * Integer.BYTES);
+        }
+        return new AuditRecord(
+                in.getLong(offset + TIME),
+                new UUID(in.getLong(offset + PLAYER_MSB), in.getLong(offset + PLAYER_LSB)),
+                getString(in, offset + NOTATION),
+                in.getInt(offset + DICE),
+                in.getInt(offset + FACES),
+                in.getLong(offset + TOTAL),
+                results,
+                rolled,
+                getString(in, offset + WORLD),
+                in.getInt(offset + X),
+                in.getInt(offset + Y),
+                in.getInt(offset + Z));
+    }
+
+    /** True if every die was stored, i.e. {@link #results()} is the whole roll. */
+    public boolean complete() {
+        return rolled <= MAX_RESULTS;
+    }
+
+    /** The stored dice as {@code [7, (2), 6!]}, with {@code …} when the roll had more dice than fit. */
+    public String resultsText() {
+        if (results.length == 0) {
+            return "[Σ" + total + "]";
+        }
+        StringBuilder out = new StringBuilder(results.length * 4 + 2).append('[');
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) out.append(", ");
+            int value = results[i];
+            if ((value & DROPPED) != 0) {
+                out.append('(').append(value & VALUE_MASK).append(')');
+            } else {
+                out.append(value & VALUE_MASK);
+            }
+            if ((value & EXPLODED) != 0) out.append('!');
+        }
+        if (!complete()) out.append(", …");
+        return out.append(']').toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AuditRecord r && time == r.time && player.equals(r.player) && notation.equals(r.notation)
+                && dice == r.dice && faces == r.faces && total == r.total && Arrays.equals(results, r.results)
+                && rolled == r.rolled && world.equals(r.world) && x == r.x && y == r.y && z == r.z;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(time) + player.hashCode();
+    }
+
+    /** UTF-8 bytes of {@code value} cut to {@code capacity}, exactly as a string field stores them. */
+    static byte[] fieldBytes(String value, int capacity) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, capacity);
+        // Back off to the start of a UTF-8 sequence so a cut never leaves half a character
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+    }
+
+    private static void putString(ByteBuffer out, int offset, int capacity, String value) {
+        byte[] bytes = fieldBytes(value, capacity);
+        out.put(offset, (byte) bytes.length);
+        out.put(offset + 1, bytes, 0, bytes.length);
+        for (int i = bytes.length; i < capacity; i++) {
+            out.put(offset + 1 + i, (byte) 0);
+        }
+    }
+
+    private static String getString(ByteBuffer in, int offset) {
+        int length = in.get(offset) & 0xFF;
+        byte[] bytes = new byte[length];
+        in.get(offset + 1, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File layout of one audit segment, {@code rolls-000001.pdlog}: a {@link #HEADER_SIZE}-byte header followed by
+ * fixed-width {@link AuditRecord}s.
+ * <pre>
+ *   0  long  magic "PDAUDIT" + format version
+ *   8  int   record size
+ *  12  int   records committed (only these are valid; the rest of the file is preallocated space)
+ *  16  long  created (epoch millis)
+ *  24  long  time of the first record
+ *  32  long  time of the last record
+ * </pre>
+ * The count is updated on every flush, so a reader never sees a half-written record as committed.
+ */
+public final class AuditSegment {
+
+    public static final int HEADER_SIZE = 64;
+    static final long MAGIC = 0x5044415544495401L; // "PDAUDIT" 0x01
+    static final String PREFIX = "rolls-";
+    static final String SUFFIX = ".pdlog";
+
+    private static final int RECORD_SIZE_AT = 8;
+    private static final int COUNT_AT = 12;
+    private static final int CREATED_AT = 16;
+    private static final int FIRST_AT = 24;
+    private static final int LAST_AT = 32;
+
+    private AuditSegment() {
+    }
+
+    static String fileName(int sequence) {
+        return String.format(Locale.ROOT, "%s%06d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    /** Sequence number of a segment file, or 0 if {@code file} is not one. */
+    static int sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return 0;
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    static void writeHeader(ByteBuffer out, long created, int count, long first, long last) {
+        out.putLong(0, MAGIC);
+        out.putInt(RECORD_SIZE_AT, AuditRecord.SIZE);
+        out.putLong(CREATED_AT, created);
+        updateCount(out, count, first, last);
+    }
+
+    static void updateCount(ByteBuffer out, int count, long first, long last) {
+        out.putLong(FIRST_AT, first);
+        out.putLong(LAST_AT, last);
+        // Written last: the count is what makes records visible to readers
+        out.putInt(COUNT_AT, count);
+    }
+
+    /** Committed records in a segment mapped into {@code in}, after checking the header. */
+    static int readCount(ByteBuffer in) {
+        if (in.capacity() < HEADER_SIZE || in.getLong(0) != MAGIC || in.getInt(RECORD_SIZE_AT) != AuditRecord.SIZE) {
+            throw new IllegalArgumentException("not a PocketDice audit segment");
+        }
+        int count = in.getInt(COUNT_AT);
+        int fits = (in.capacity() - HEADER_SIZE) / AuditRecord.SIZE;
+        return Math.max(0, Math.min(count, fits));
+    }
+
+    static long firstTime(ByteBuffer in) {
+        return in.getLong(FIRST_AT);
+    }
+
+    static long lastTime(ByteBuffer in) {
+        return in.getLong(LAST_AT);
+    }
+}
@@ -0,0 +1,93 @@
+package me.sepehrhn.pocketdice.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Offline reader for audit logs, runnable from the plugin jar without a server:
+ * <pre>
+ *   java -jar PocketDice.jar plugins/PocketDice/audit [--player uuid] [--world name] [--faces n]
+ *        [--since 2h | --from 2024-05-01T00:00:00Z --to ...] [--limit n] [--newest] [--index]
+ * </pre>
+ * Matching rolls are printed as tab-separated lines: ISO time, player UUID, world, x, y, z, notation, total, dice.
+ * A summary goes to stderr. {@code --index} writes missing indexes for finished segments instead of querying.
+ * Uses nothing outside the JDK.
+ */
+public final class AuditTool {
+
+    private AuditTool() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length == 0 || args[0].equals("--help")) {
+            err.println("usage: <audit-dir> [--player uuid] [--world name] [--faces n] [--since 30m|2h|7d]"
+                    + " [--from iso] [--to iso] [--limit n] [--newest] [--index]");
+            return args.length == 0 ? 2 : 0;
+        }
+        Path directory = Path.of(args[0]);
+        AuditQuery query = AuditQuery.ALL;
+        int limit = Integer.MAX_VALUE;
+        boolean newest = false;
+        boolean index = false;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--player" -> query = query.withPlayer(UUID.fromString(value(args, ++i)));
+                    case "--world" -> query = query.withWorld(value(args, ++i));
+                    case "--faces" -> query = query.withFaces(Integer.parseInt(value(args, ++i)));
+                    case "--since" -> query = query.between(
+                            System.currentTimeMillis() - AuditQuery.parseDuration(value(args, ++i)), query.to());
+                    case "--from" -> query = query.between(Instant.parse(value(args, ++i)).toEpochMilli(), query.to());
+                    case "--to" -> query = query.between(query.from(), Instant.parse(value(args, ++i)).toEpochMilli());
+                    case "--limit" -> limit = Integer.parseInt(value(args, ++i));
+                    case "--newest" -> newest = true;
+                    case "--index" -> index = true;
+                    default -> throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            err.println("error: " + ex.getMessage());
+            return 2;
+        }
+
+        try {
+            if (index) {
+                err.println("wrote " + AuditReader.buildIndexes(directory) + " index file(s)");
+                return 0;
+            }
+            StringBuilder line = new StringBuilder(128);
+            AuditReader.Stats stats = AuditReader.query(directory, query, limit, newest, record -> {
+                line.setLength(0);
+                line.append(Instant.ofEpochMilli(record.time())).append('\t')
+                        .append(record.player()).append('\t')
+                        .append(record.world()).append('\t')
+                        .append(record.x()).append('\t').append(record.y()).append('\t').append(record.z()).append('\t')
+                        .append(record.notation()).append('\t')
+                        .append(record.total()).append('\t')
+                        .append(record.resultsText());
+                out.println(line);
+            });
+            err.printf("%d match(es); %d of %d segment(s) opened, %d record(s) tested in %d ms%n",
+                    stats.matches(), stats.segmentsScanned(), stats.segments(), stats.recordsTested(),
+                    stats.nanos() / 1_000_000L);
+            return 0;
+        } catch (IOException ex) {
+            err.println("error: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+}
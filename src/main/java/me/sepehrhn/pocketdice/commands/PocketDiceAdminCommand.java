@@ -2,16 +2,52 @@
 package me.sepehrhn.pocketdice.commands;
 
 import me.sepehrhn.pocketdice.PocketDice;
+import me.sepehrhn.pocketdice.audit.AuditLog;
+import me.sepehrhn.pocketdice.audit.AuditQuery;
+import me.sepehrhn.pocketdice.audit.AuditReader;
+import me.sepehrhn.pocketdice.audit.AuditRecord;
 import me.sepehrhn.pocketdice.config.ConfigUpdater;
+import me.sepehrhn.pocketdice.config.RollSettings;
+import me.sepehrhn.pocketdice.load.LoadMonitor;
+import me.sepehrhn.pocketdice.locale.LocaleManager;
+import me.sepehrhn.pocketdice.metrics.LatencyHistogram;
+import me.sepehrhn.pocketdice.metrics.LatencyMetrics;
+import me.sepehrhn.pocketdice.metrics.LatencyStage;
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
+import me.sepehrhn.pocketdice.stats.ChiSquare;
+import me.sepehrhn.pocketdice.stats.RollStats;
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.DiceParser;
+import me.sepehrhn.pocketdice.util.NotationCache;
+import me.sepehrhn.pocketdice.util.RollSimulator;
 import me.sepehrhn.pocketdice.util.Text;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.*;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 public class PocketDiceAdminCommand implements CommandExecutor, TabCompleter {
 
+    private static final int DEFAULT_AUDIT_LIMIT = 10;
+    private static final int MAX_AUDIT_LIMIT = 100;
+    /** Below this p-value a die size is reported as unlikely to be fair. */
+    private static final double SUSPICIOUS_P = 0.001;
+
     private final PocketDice plugin;
+    private final AtomicBoolean reloading = new AtomicBoolean();
 
     public PocketDiceAdminCommand(PocketDice plugin) {
         this.plugin = plugin;
@@ -19,22 +55,43 @@ public class PocketDiceAdminCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
+        // Open to players by default: the fairness check is for them
+        if (args.length == 1 && args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission("pocketdice.stats")) {
+                Text.sendLocale(plugin, sender, "messages.command.no_permission");
+                return true;
+            }
+            sendRollStats(sender);
+            return true;
+        }
+
         if (!sender.hasPermission("pocketdice.reload")) {
             Text.sendLocale(plugin, sender, "messages.command.no_permission");
             return true;
         }
 
+        if (args.length == 0 || (args.length == 1 && args[0].equalsIgnoreCase("status"))) {
+            sendStatus(sender);
+            return true;
+        }
+
         if (args.length == 1 && args[0].equalsIgnoreCase("reload")) {
-            try {
-                ConfigUpdater.updateConfig(plugin);
-                plugin.reloadConfig();
-                plugin.getLocaleManager().reload();
-                plugin.restartUpdateChecker();
-                Text.sendLocale(plugin, sender, "messages.command.reload_success");
-            } catch (IOException | IllegalStateException e) {
-                plugin.getLogger().severe("Failed to update config.yml on reload: " + e.getMessage());
-                Text.sendLocale(plugin, sender, "messages.command.reload_failure");
-            }
+            reload(sender);
+            return true;
+        }
+
+        if (args.length >= 1 && args[0].equalsIgnoreCase("simulate")) {
+            simulate(sender, args);
+            return true;
+        }
+
+        if (args.length >= 1 && args.length <= 2 && args[0].equalsIgnoreCase("metrics")) {
+            metrics(sender, args);
+            return true;
+        }
+
+        if (args.length >= 1 && args[0].equalsIgnoreCase("audit")) {
+            audit(sender, args);
             return true;
         }
 
@@ -44,7 +101,379 @@ public class PocketDiceAdminCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command cmd, String alias, String[] args) {
-        if (args.length == 1) return List.of("reload");
+        if (!sender.hasPermission("pocketdice.reload")) {
+            return args.length == 1 && sender.hasPermission("pocketdice.stats") ? List.of("stats") : List.of();
+        }
+        if (args.length == 1) return List.of("audit", "metrics", "reload", "simulate", "stats", "status");
+        if (args.length == 2 && args[0].equalsIgnoreCase("metrics")) return List.of("reset");
+        if (args.length >= 2 && args.length % 2 == 0 && args[0].equalsIgnoreCase("audit")) {
+            return List.of("player", "world", "faces", "since", "limit");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("simulate")) return List.of("4d6kh3", "1d20+5", "2d20kl1");
+        if (args.length == 3 && args[0].equalsIgnoreCase("simulate")) return List.of("100000", "1000000", "10000000");
         return List.of();
     }
+
+    /**
+     * Migrate and parse config.yml and the locales on a worker, then swap the finished snapshots in on the
+     * global thread. The server never waits on disk, and a failed load leaves the running config untouched.
+     */
+    private void reload(CommandSender sender) {
+        if (!reloading.compareAndSet(false, true)) {
+            Text.sendLocale(plugin, sender, "messages.command.reload_running");
+            return;
+        }
+        final TaskScheduler scheduler = plugin.getTaskScheduler();
+        final long started = System.nanoTime();
+        scheduler.runAsync(() -> {
+            final FileConfiguration config;
+            final RollSettings settings;
+            final LocaleManager.Snapshot locales;
+            final PocketDice.PreparedIo io;
+            try {
+                LatencyMetrics metrics = plugin.getLatencyMetrics();
+                long start = metrics.start();
+                ConfigUpdater.updateConfig(plugin);
+                metrics.lap(LatencyStage.CONFIG_UPDATE, start);
+                config = ConfigUpdater.loadConfig(plugin);
+                settings = RollSettings.load(config, plugin.getLogger());
+                locales = plugin.getLocaleManager().load();
+                io = plugin.prepareIo(config);
+            } catch (IOException | RuntimeException e) {
+                plugin.getLogger().severe("Failed to update config.yml on reload: " + e.getMessage());
+                plugin.getCounters().reloadFailed();
+                reloading.set(false);
+                scheduler.runFor(sender, () -> Text.sendLocale(plugin, sender, "messages.command.reload_failure"));
+                return;
+            }
+            scheduler.runGlobal(() -> {
+                final List<AutoCloseable> retired;
+                try {
+                    retired = plugin.applyReload(config, settings, locales, io);
+                    plugin.getCounters().reload(System.nanoTime() - started);
+                } catch (RuntimeException e) {
+                    reloading.set(false);
+                    io.discard();
+                    throw e;
+                }
+                // Draining the old audit log and stopping the old exporter can block; the next reload waits for it
+                scheduler.runAsync(() -> {
+                    try {
+                        plugin.closeRetired(retired);
+                    } finally {
+                        reloading.set(false);
+                    }
+                    scheduler.runFor(sender, () -> Text.sendLocale(plugin, sender, "messages.command.reload_success"));
+                });
+            });
+        });
+    }
+
+    /** {@code /pocketdice simulate <expression> <trials>}; the expression may contain spaces. */
+    private void simulate(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            Text.sendLocale(plugin, sender, "messages.simulate.usage");
+            return;
+        }
+        final RollSettings settings = plugin.getRollSettings();
+        final long maxTrials = settings.simulationMaxTrials();
+        final long trials;
+        try {
+            trials = Long.parseLong(args[args.length - 1].replace("_", ""));
+        } catch (NumberFormatException ex) {
+            Text.sendLocale(plugin, sender, "messages.simulate.usage");
+            return;
+        }
+        if (trials < 1 || trials > maxTrials) {
+            Text.sendLocale(plugin, sender, "messages.simulate.trials_out_of_range", Map.of(
+                    "max", Long.toString(maxTrials)
+            ));
+            return;
+        }
+
+        final String notation = String.join(" ", Arrays.copyOfRange(args, 1, args.length - 1)).trim();
+        final DiceExpression expression;
+        try {
+            expression = plugin.getNotationCache().get(notation);
+        } catch (DiceParser.DiceParseException ex) {
+            RollCommand.sendParseError(plugin, sender, ex, settings);
+            return;
+        }
+
+        final RollSimulator simulator = plugin.getSimulator();
+        final long seed = plugin.getRandomProvider().current().nextLong();
+        final var pending = simulator.simulate(expression, trials, seed);
+        if (pending == null) {
+            Text.sendLocale(plugin, sender, "messages.simulate.busy");
+            return;
+        }
+        final String shownNotation = Text.escape(expression.notation());
+        Text.sendLocale(plugin, sender, "messages.simulate.started", Map.of(
+                "notation", shownNotation,
+                "trials", Long.toString(trials),
+                "threads", Integer.toString(simulator.parallelism())
+        ));
+
+        // Workers never touch the server; only the finished summary hops back to the sender's thread
+        pending.whenComplete((summary, error) -> plugin.getTaskScheduler().runFor(sender, () -> {
+            if (error != null) {
+                plugin.getLogger().warning("Simulation of " + expression.notation() + " failed: " + error);
+                Text.sendLocale(plugin, sender, "messages.simulate.failed");
+                return;
+            }
+            Text.sendLocale(plugin, sender, "messages.simulate.result", Map.ofEntries(
+                    Map.entry("notation", shownNotation),
+                    Map.entry("trials", Long.toString(summary.trials())),
+                    Map.entry("mean", RollCommand.formatNumber(summary.mean())),
+                    Map.entry("stddev", RollCommand.formatNumber(summary.standardDeviation())),
+                    Map.entry("min", Long.toString(summary.min())),
+                    Map.entry("max", Long.toString(summary.max())),
+                    Map.entry("p5", Long.toString(summary.p5())),
+                    Map.entry("p50", Long.toString(summary.median())),
+                    Map.entry("p95", Long.toString(summary.p95())),
+                    Map.entry("millis", Long.toString(TimeUnit.NANOSECONDS.toMillis(summary.elapsedNanos())))
+            ));
+        }));
+    }
+
+    /**
+     * {@code /pocketdice audit [player <name|uuid>] [world <name>] [faces <n>] [since <30m|2h|7d>] [limit <n>]}:
+     * newest matching rolls from the audit log. The files are read on a worker; results hop back to the sender.
+     */
+    private void audit(CommandSender sender, String[] args) {
+        if (args.length % 2 == 0) {
+            Text.sendLocale(plugin, sender, "messages.audit.usage");
+            return;
+        }
+        AuditQuery query = AuditQuery.ALL;
+        int limit = DEFAULT_AUDIT_LIMIT;
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i].toLowerCase(Locale.ROOT)) {
+                    case "player" -> {
+                        UUID id = resolvePlayer(value);
+                        if (id == null) {
+                            Text.sendLocale(plugin, sender, "messages.audit.unknown_player", Map.of(
+                                    "player", Text.escape(value)
+                            ));
+                            return;
+                        }
+                        query = query.withPlayer(id);
+                    }
+                    case "world" -> query = query.withWorld(value);
+                    case "faces" -> query = query.withFaces(Integer.parseInt(value));
+                    case "since" -> query = query.between(
+                            System.currentTimeMillis() - AuditQuery.parseDuration(value), Long.MAX_VALUE);
+                    case "limit" -> limit = Math.max(1, Math.min(MAX_AUDIT_LIMIT, Integer.parseInt(value)));
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException included
+            Text.sendLocale(plugin, sender, "messages.audit.usage");
+            return;
+        }
+
+        final AuditQuery filter = query;
+        final int max = limit;
+        final Path directory = plugin.getDataFolder().toPath().resolve("audit");
+        final TaskScheduler scheduler = plugin.getTaskScheduler();
+        scheduler.runAsync(() -> {
+            final List<AuditRecord> found = new ArrayList<>();
+            final AuditReader.Stats stats;
+            try {
+                stats = AuditReader.query(directory, filter, max, true, found::add);
+            } catch (IOException | RuntimeException ex) {
+                plugin.getLogger().warning("Audit query failed: " + ex.getMessage());
+                scheduler.runFor(sender, () -> Text.sendLocale(plugin, sender, "messages.audit.failed"));
+                return;
+            }
+            scheduler.runFor(sender, () -> sendAudit(sender, found, stats));
+        });
+    }
+
+    private void sendAudit(CommandSender sender, List<AuditRecord> found, AuditReader.Stats stats) {
+        if (stats.segments() == 0 && plugin.getAuditLog() == null) {
+            Text.sendLocale(plugin, sender, "messages.audit.disabled");
+            return;
+        }
+        Text.sendLocale(plugin, sender, "messages.audit.header", Map.of(
+                "count", Integer.toString(found.size()),
+                "scanned", Integer.toString(stats.segmentsScanned()),
+                "segments", Integer.toString(stats.segments()),
+                "millis", Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.nanos()))
+        ));
+        long now = System.currentTimeMillis();
+        Map<UUID, String> names = new HashMap<>();
+        for (AuditRecord record : found) {
+            String name = names.computeIfAbsent(record.player(), id -> {
+                String known = plugin.getServer().getOfflinePlayer(id).getName();
+                return known != null ? known : id.toString();
+            });
+            Text.sendLocale(plugin, sender, "messages.audit.entry", Map.of(
+                    "ago", RollCommand.formatAge(now - record.time()),
+                    "player", name,
+                    "world", Text.escape(record.world()),
+                    "notation", Text.escape(record.notation()),
+                    "results", record.resultsText(),
+                    "total", Long.toString(record.total())
+            ));
+        }
+    }
+
+    /** Online player by exact name, a UUID, or a player the server has seen before; null if none. */
+    private UUID resolvePlayer(String value) {
+        Player online = plugin.getServer().getPlayerExact(value);
+        if (online != null) return online.getUniqueId();
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException ignored) {
+            // Not a UUID; try the name cache
+        }
+        OfflinePlayer cached = plugin.getServer().getOfflinePlayerIfCached(value);
+        return cached != null ? cached.getUniqueId() : null;
+    }
+
+    /** {@code /pocketdice stats}: the latest roll counter snapshot, with a chi-square check per tracked die size. */
+    private void sendRollStats(CommandSender sender) {
+        RollStats stats = plugin.getRollStats();
+        if (stats == null) {
+            Text.sendLocale(plugin, sender, "messages.roll_stats.disabled");
+            return;
+        }
+        RollStats.Snapshot snapshot = stats.snapshot();
+        long now = System.currentTimeMillis();
+        Text.sendLocale(plugin, sender, "messages.roll_stats.header", Map.of(
+                "rolls", Long.toString(snapshot.rolls()),
+                "dice", Long.toString(snapshot.dice()),
+                "per_minute", String.format(Locale.ROOT, "%.1f", snapshot.rollsPerMinute()),
+                "since", RollCommand.formatAge(now - snapshot.since()),
+                "age", RollCommand.formatAge(now - snapshot.time())
+        ));
+        if (!snapshot.topNotations().isEmpty()) {
+            Text.sendLocale(plugin, sender, "messages.roll_stats.top_notations", Map.of(
+                    "list", joinCounts(snapshot.topNotations(), notation -> notation)
+            ));
+        }
+        if (!snapshot.topPlayers().isEmpty()) {
+            Text.sendLocale(plugin, sender, "messages.roll_stats.top_players", Map.of(
+                    "list", joinCounts(snapshot.topPlayers(), id -> {
+                        String name = plugin.getServer().getOfflinePlayer(id).getName();
+                        return name != null ? name : id.toString();
+                    })
+            ));
+        }
+        for (RollStats.Histogram histogram : snapshot.histograms()) {
+            long total = histogram.total();
+            if (!histogram.hasEnoughData()) {
+                Text.sendLocale(plugin, sender, "messages.roll_stats.insufficient", Map.of(
+                        "faces", Integer.toString(histogram.faces()),
+                        "count", Long.toString(total),
+                        "needed", Long.toString((long) ChiSquare.MIN_EXPECTED_PER_FACE * histogram.faces())
+                ));
+                continue;
+            }
+            long[] counts = histogram.counts();
+            int high = 0;
+            int low = 0;
+            for (int i = 1; i < counts.length; i++) {
+                if (counts[i] > counts[high]) high = i;
+                if (counts[i] < counts[low]) low = i;
+            }
+            double p = histogram.pValue();
+            String key = p < SUSPICIOUS_P ? "messages.roll_stats.suspicious" : "messages.roll_stats.fair";
+            Text.sendLocale(plugin, sender, key, Map.of(
+                    "faces", Integer.toString(histogram.faces()),
+                    "count", Long.toString(total),
+                    "chi", String.format(Locale.ROOT, "%.1f", histogram.chiSquare()),
+                    "df", Integer.toString(histogram.faces() - 1),
+                    "p", p < 0.001 ? Text.escape("<0.001") : String.format(Locale.ROOT, "%.3f", p),
+                    "high", (high + 1) + " (" + counts[high] + ")",
+                    "low", (low + 1) + " (" + counts[low] + ")"
+            ));
+        }
+    }
+
+    private static <K> String joinCounts(List<RollStats.Count<K>> counts, Function<K, String> name) {
+        StringBuilder out = new StringBuilder();
+        for (RollStats.Count<K> count : counts) {
+            if (!out.isEmpty()) out.append(", ");
+            out.append(Text.escape(name.apply(count.key()))).append(" (").append(count.count()).append(')');
+        }
+        return out.toString();
+    }
+
+    /** {@code /pocketdice metrics [reset]}: p50/p99/max per timed stage since startup or the last reset. */
+    private void metrics(CommandSender sender, String[] args) {
+        LatencyMetrics metrics = plugin.getLatencyMetrics();
+        if (!metrics.isEnabled()) {
+            Text.sendLocale(plugin, sender, "messages.metrics.disabled");
+            return;
+        }
+        if (args.length == 2) {
+            if (!args[1].equalsIgnoreCase("reset")) {
+                Text.sendLocale(plugin, sender, "messages.metrics.usage");
+                return;
+            }
+            metrics.reset();
+            Text.sendLocale(plugin, sender, "messages.metrics.reset");
+            return;
+        }
+        Text.sendLocale(plugin, sender, "messages.metrics.header");
+        boolean any = false;
+        for (LatencyStage stage : LatencyStage.values()) {
+            LatencyHistogram.Summary summary = metrics.summary(stage);
+            if (summary.count() == 0) continue;
+            any = true;
+            Text.sendLocale(plugin, sender, "messages.metrics.stage", Map.of(
+                    "stage", stage.key(),
+                    "count", Long.toString(summary.count()),
+                    "p50", formatNanos(summary.p50()),
+                    "p99", formatNanos(summary.p99()),
+                    "max", formatNanos(summary.max())
+            ));
+        }
+        if (!any) {
+            Text.sendLocale(plugin, sender, "messages.metrics.empty");
+        }
+    }
+
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000L) return nanos + "ns";
+        if (nanos < 1_000_000L) return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000D);
+        if (nanos < 1_000_000_000L) return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000D);
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000D);
+    }
+
+    private void sendStatus(CommandSender sender) {
+        Text.sendLocale(plugin, sender, "messages.status.header", Map.of(
+                "version", plugin.getDescription().getVersion()
+        ));
+
+        NotationCache.Stats cache = plugin.getNotationCache().stats();
+        Text.sendLocale(plugin, sender, "messages.status.cache", Map.of(
+                "size", Integer.toString(cache.size()),
+                "capacity", Integer.toString(cache.capacity()),
+                "hits", Long.toString(cache.hits()),
+                "misses", Long.toString(cache.misses()),
+                "evictions", Long.toString(cache.evictions())
+        ));
+
+        LoadMonitor load = plugin.getLoadMonitor();
+        double mspt = load.lastMspt();
+        Text.sendLocale(plugin, sender, "messages.status.load", Map.of(
+                "level", load.level().key(),
+                "mspt", Double.isNaN(mspt) ? "?" : String.format(Locale.ROOT, "%.1f", mspt)
+        ));
+
+        AuditLog audit = plugin.getAuditLog();
+        if (audit != null) {
+            Text.sendLocale(plugin, sender, "messages.status.audit", Map.of(
+                    "written", Long.toString(audit.written()),
+                    "pending", Integer.toString(audit.pending()),
+                    "dropped", Long.toString(audit.dropped())
+            ));
+        }
+    }
 }
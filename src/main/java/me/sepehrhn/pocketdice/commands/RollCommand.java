@@ -2,22 +2,41 @@
 package me.sepehrhn.pocketdice.commands;
 
 import me.sepehrhn.pocketdice.PocketDice;
+import me.sepehrhn.pocketdice.audit.AuditLog;
+import me.sepehrhn.pocketdice.config.LoadSettings;
+import me.sepehrhn.pocketdice.config.RollSettings;
+import me.sepehrhn.pocketdice.history.HistoryBuffer;
+import me.sepehrhn.pocketdice.history.RollHistory;
+import me.sepehrhn.pocketdice.load.LoadLevel;
+import me.sepehrhn.pocketdice.load.LoadMonitor;
+import me.sepehrhn.pocketdice.locale.LocaleManager;
+import me.sepehrhn.pocketdice.metrics.LatencyMetrics;
+import me.sepehrhn.pocketdice.metrics.LatencyStage;
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
+import me.sepehrhn.pocketdice.stats.RollStats;
+import me.sepehrhn.pocketdice.util.DiceDistribution;
+import me.sepehrhn.pocketdice.util.DiceExpression;
 import me.sepehrhn.pocketdice.util.DiceParser;
+import me.sepehrhn.pocketdice.util.RollResult;
 import me.sepehrhn.pocketdice.util.Text;
 import org.bukkit.Location;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.NamespacedKey;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.sound.Sound;
 import net.kyori.adventure.text.Component;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 public class RollCommand implements CommandExecutor, TabCompleter {
 
+    private static final int DEFAULT_HISTORY_COUNT = 5;
+
     private final PocketDice plugin;
 
     public RollCommand(PocketDice plugin) {
@@ -26,6 +45,29 @@ public class RollCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission("pocketdice.roll")) {
+                Text.sendLocale(plugin, sender, "messages.command.no_permission");
+                return true;
+            }
+            if (sender instanceof Player player && isRateLimited(player, plugin.getRollSettings())) {
+                return true;
+            }
+            handleStats(sender, args);
+            return true;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("history")) {
+            if (!sender.hasPermission("pocketdice.roll")) {
+                Text.sendLocale(plugin, sender, "messages.command.no_permission");
+                return true;
+            }
+            // Walks and renders up to a whole ring buffer, so it costs a token like a roll does
+            if (sender instanceof Player player && isRateLimited(player, plugin.getRollSettings())) {
+                return true;
+            }
+            handleHistory(sender, args);
+            return true;
+        }
         if (!(sender instanceof Player player)) {
             Text.sendLocale(plugin, sender, "messages.command.player_only");
             return true;
@@ -35,129 +77,387 @@ public class RollCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        final var cfg = plugin.getConfig();
-        final String defaultNotation = cfg.getString("default_notation", "1d100");
-        final boolean allowShorthand = cfg.contains("allow_shorthand")
-                ? cfg.getBoolean("allow_shorthand", true)
-                : cfg.getBoolean("allow_shorthand_d", true);
-        final int maxDice = cfg.getInt("max_dice", 50);
-        final int maxFaces = cfg.getInt("max_faces", 1000);
-        final int radius = cfg.getInt("radius", 16);
-
-        final String notation = (args.length == 0 ? defaultNotation : args[0]).trim();
+        // One snapshot per roll; a reload mid-command cannot mix old and new values
+        final RollSettings settings = plugin.getRollSettings();
+        if (isRateLimited(player, settings)) {
+            return true;
+        }
+        final String notation = args.length == 0 ? settings.defaultNotation() : String.join(" ", args).trim();
+        final LatencyMetrics metrics = plugin.getLatencyMetrics();
+        long t = metrics.start();
 
-        final DiceParser.DiceSpec spec;
+        // Compiled (or rejected) notations are cached, including the max_dice/max_faces check
+        final DiceExpression expression;
         try {
-            spec = DiceParser.parse(notation, allowShorthand);
+            expression = plugin.getNotationCache().get(notation);
         } catch (DiceParser.DiceParseException ex) {
-            handleParseError(sender, allowShorthand, ex);
+            metrics.lap(LatencyStage.ROLL_PARSE, t);
+            sendParseError(plugin, sender, ex, settings);
             return true;
         }
+        t = metrics.lap(LatencyStage.ROLL_PARSE, t);
 
-        int dice = spec.dice();
-        int faces = spec.faces();
-
-        // Clamp to caps; inform only the roller
-        if (spec.dice() > maxDice || spec.faces() > maxFaces) {
-            Text.sendLocale(plugin, sender, "messages.roll.limits_exceeded", Map.of(
-                    "notation", spec.dice() + "d" + spec.faces(),
-                    "max_dice", Integer.toString(maxDice),
-                    "max_faces", Integer.toString(maxFaces)
-            ));
-            return true;
+        // Roll every term in one evaluation so complex expressions still produce a single message
+        final RollResult result = plugin.getRandomProvider().roll(expression, RollResult.local());
+        t = metrics.lap(LatencyStage.ROLL_EVALUATE, t);
+        plugin.getCounters().roll();
+        plugin.getRollHistory().record(player.getUniqueId(), expression, result);
+        final RollStats stats = plugin.getRollStats();
+        if (stats != null) {
+            stats.record(player.getUniqueId(), expression, result);
         }
-
-        // Roll
-        final ThreadLocalRandom rng = ThreadLocalRandom.current();
-        final List<Integer> rolls = new ArrayList<>(dice);
-        int total = 0;
-        for (int i = 0; i < dice; i++) {
-            int value = rng.nextInt(1, faces + 1);
-            rolls.add(value);
-            total += value;
+        final AuditLog audit = plugin.getAuditLog();
+        if (audit != null) {
+            final Location at = player.getLocation();
+            audit.append(AuditLog.capture(player.getUniqueId(), expression, result,
+                    at.getWorld() == null ? "" : at.getWorld().getName(), at.getBlockX(), at.getBlockY(), at.getBlockZ()));
         }
+        metrics.lap(LatencyStage.ROLL_RECORD, t);
 
-        final String finalNotation = dice + "d" + faces;
-        final String msg = plugin.getLocaleManager().get(player, "messages.roll.result", Map.of(
+        // Under load, shed the optional parts of a roll; see LoadMonitor
+        final LoadMonitor monitor = plugin.getLoadMonitor();
+        final LoadLevel load = monitor.level();
+        final LoadSettings shedding = monitor.settings();
+        final String results = shedding.sheds(load, LoadLevel.SUMMARY_ONLY) && result.size() > shedding.summaryDice()
+                ? "[Σ" + result.total() + "]"
+                : result.text();
+        final int radius = shedding.sheds(load, LoadLevel.REDUCED_RADIUS)
+                ? Math.min(settings.radius(), shedding.reducedRadius())
+                : settings.radius();
+
+        final Map<String, String> placeholders = Map.of(
                 "player", player.getName(),
-                "notation", finalNotation,
-                "results", rolls.toString(),
-                "total", Integer.toString(total)
+                "notation", Text.escape(expression.notation()),
+                "results", results,
+                "total", Long.toString(result.total())
+        );
+        final Sound sound = shedding.sheds(load, LoadLevel.NO_SOUND) ? null : settings.rollSound();
+        final boolean soundToAll = settings.rollSoundToRecipients();
+        if (shedding.sheds(load, LoadLevel.DEFERRED)) {
+            plugin.getTaskScheduler().runAtEntity(player, () -> broadcast(player, radius, placeholders, sound, soundToAll));
+        } else {
+            broadcast(player, radius, placeholders, sound, soundToAll);
+        }
+
+        return true;
+    }
+
+    /** Take a token from the player's bucket; when it is empty, say how long to wait and do nothing else. */
+    private boolean isRateLimited(Player player, RollSettings settings) {
+        if (!settings.rateLimitEnabled() || player.hasPermission("pocketdice.ratelimit.bypass")) {
+            return false;
+        }
+        long wait = plugin.getRateLimiter().tryAcquire(player.getUniqueId(), System.nanoTime());
+        if (wait == 0L) {
+            return false;
+        }
+        plugin.getCounters().rateLimited();
+        Text.sendLocale(plugin, player, "messages.roll.rate_limited", Map.of(
+                "seconds", String.format(Locale.ROOT, "%.1f", Math.max(0.1D, wait / 1_000_000_000D))
         ));
-        Component msgComponent = Text.toComponent(msg);
+        return true;
+    }
 
-        // Send to roller
-        player.sendMessage(msgComponent);
+    /**
+     * Send the result to the roller and everyone within {@code radius}, rendered once per locale, and play the
+     * roll sound at the roller's position: to the roller only, or to every recipient when {@code soundToAll}.
+     * <p>
+     * Recipients in the roller's region are grouped by locale and each group gets a single audience send; the
+     * sound goes to all of them in one more audience call. Recipients owned by other regions (Folia) get the same
+     * per-locale component, and the sound, on their own thread. Scanning, rendering and sending are kept apart so
+     * each can be timed on its own.
+     */
+    private void broadcast(Player roller, int radius, Map<String, String> placeholders, Sound sound, boolean soundToAll) {
+        final LatencyMetrics metrics = plugin.getLatencyMetrics();
+        long t = metrics.start();
+        // One snapshot for the whole broadcast, so a concurrent reload never mixes old and new messages
+        final LocaleManager.Snapshot locales = plugin.getLocaleManager().snapshot();
+        final TaskScheduler scheduler = plugin.getTaskScheduler();
+        final Map<String, List<Audience>> local = new HashMap<>(4);
+        final Map<String, List<Player>> remote = new HashMap<>(4);
+        final List<Audience> hearing = new ArrayList<>();
+        final Sound shared = soundToAll ? sound : null;
 
-        // Send to players within radius (same world). Use distanceSquared for performance.
-        final Location origin = player.getLocation();
-        final double r2 = (double) radius * (double) radius;
+        local.computeIfAbsent(locales.effectiveLocaleFor(roller), k -> new ArrayList<>()).add(roller);
+        hearing.add(roller);
 
-        for (Player p : player.getWorld().getPlayers()) {
-            if (p.equals(player)) continue; // already sent
-            if (p.getLocation().distanceSquared(origin) <= r2) {
-                p.sendMessage(msgComponent);
+        // The spatial index only visits nearby chunks
+        final Location origin = roller.getLocation();
+        final double x = origin.getX();
+        final double y = origin.getY();
+        final double z = origin.getZ();
+        plugin.getPlayerIndex().forEachNear(origin.getWorld(), x, y, z, radius, p -> {
+            if (p.equals(roller)) return;
+            String locale = locales.effectiveLocaleFor(p);
+            if (scheduler.isOwnedByCurrentThread(p)) {
+                local.computeIfAbsent(locale, k -> new ArrayList<>()).add(p);
+                if (shared != null) hearing.add(p);
+            } else {
+                remote.computeIfAbsent(locale, k -> new ArrayList<>()).add(p);
             }
-        }
+        });
+        metrics.lap(LatencyStage.ROLL_SCAN, t);
 
-        playRollSound(player);
+        final Map<String, Component> rendered = new HashMap<>(4);
+        final Function<String, Component> render = locale -> {
+            long start = metrics.start();
+            String text = locales.get(locale, "messages.roll.result", placeholders);
+            start = metrics.lap(LatencyStage.ROLL_FORMAT, start);
+            Component component = Text.toComponent(text);
+            metrics.lap(LatencyStage.ROLL_RENDER, start);
+            return component;
+        };
+        local.keySet().forEach(locale -> rendered.computeIfAbsent(locale, render));
+        remote.keySet().forEach(locale -> rendered.computeIfAbsent(locale, render));
 
-        return true;
+        t = metrics.start();
+        local.forEach((locale, group) -> {
+            Component message = rendered.get(locale);
+            if (group.size() == 1) {
+                group.get(0).sendMessage(message);
+            } else {
+                Audience.audience(group).sendMessage(message);
+            }
+        });
+        remote.forEach((locale, group) -> {
+            Component message = rendered.get(locale);
+            for (Player p : group) {
+                scheduler.runAtEntity(p, () -> {
+                    p.sendMessage(message);
+                    if (shared != null) p.playSound(shared, x, y, z);
+                });
+            }
+        });
+
+        if (sound != null) {
+            if (hearing.size() == 1) {
+                roller.playSound(sound, x, y, z);
+            } else {
+                Audience.audience(hearing).playSound(sound, x, y, z);
+            }
+        }
+        metrics.lap(LatencyStage.ROLL_SEND, t);
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            return List.of("1d100", "1d6", "2d6", "d20");
+            return List.of("1d100", "1d6", "2d6", "d20", "4d6kh3", "2d20kl1", "1d20+5", "stats", "history");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            return List.of("3d6", "2d6", "1d20", "4d6");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("history")) {
+            return List.of("5", "10");
         }
         return List.of();
     }
 
-    private void handleParseError(CommandSender sender, boolean allowShorthand, DiceParser.DiceParseException ex) {
-        String key = switch (ex.getError()) {
-            case MISSING_NOTATION -> "messages.roll.missing_notation";
-            case INVALID_NOTATION -> "messages.roll.invalid_notation";
-            case DICE_NAN -> "messages.roll.dice_nan";
-            case FACES_NAN -> "messages.roll.faces_nan";
-            case DICE_TOO_LOW -> "messages.roll.dice_too_low";
-            case FACES_TOO_LOW -> "messages.roll.faces_too_low";
-        };
+    /** {@code /roll history [player] [count]}: recent rolls, read straight from the player's ring buffer. */
+    private void handleHistory(CommandSender sender, String[] args) {
+        final RollHistory history = plugin.getRollHistory();
+        if (!history.isEnabled()) {
+            Text.sendLocale(plugin, sender, "messages.history.disabled");
+            return;
+        }
+        if (args.length > 3) {
+            Text.sendLocale(plugin, sender, "messages.history.usage");
+            return;
+        }
 
-        Map<String, String> placeholders = Map.of("or_d", ex.isShorthandAllowed() ? " or d8" : "");
-        Text.sendLocale(plugin, sender, key, placeholders);
-    }
+        Player target = sender instanceof Player self ? self : null;
+        int countArg = 1;
+        if (args.length >= 2 && !isCount(args[1])) {
+            target = plugin.getServer().getPlayerExact(args[1]);
+            if (target == null) {
+                Text.sendLocale(plugin, sender, "messages.history.player_not_found", Map.of(
+                        "player", Text.escape(args[1])
+                ));
+                return;
+            }
+            countArg = 2;
+        }
+        if (target == null || args.length > countArg + 1 || (args.length > countArg && !isCount(args[countArg]))) {
+            Text.sendLocale(plugin, sender, "messages.history.usage");
+            return;
+        }
+        if (!target.equals(sender) && !sender.hasPermission("pocketdice.history.others")) {
+            Text.sendLocale(plugin, sender, "messages.command.no_permission");
+            return;
+        }
+        final int count = args.length > countArg
+                ? (int) Math.max(1, Math.min(history.rollsPerPlayer(), Long.parseLong(args[countArg])))
+                : Math.min(DEFAULT_HISTORY_COUNT, history.rollsPerPlayer());
 
-    private String lastInvalidSoundKey = null;
+        final HistoryBuffer buffer = history.get(target.getUniqueId());
+        if (buffer == null || buffer.size() == 0) {
+            Text.sendLocale(plugin, sender, "messages.history.empty", Map.of("player", target.getName()));
+            return;
+        }
 
-    private void playRollSound(Player player) {
-        ConfigurationSection soundCfg = plugin.getConfig().getConfigurationSection("sounds.roll");
-        if (soundCfg == null || !soundCfg.getBoolean("enabled", true)) return;
+        // Only the rendered lines leave the buffer's lock; messages are sent after it is released
+        final long now = System.currentTimeMillis();
+        final List<Map<String, String>> lines = new ArrayList<>(count);
+        final StringBuilder results = new StringBuilder(64);
+        buffer.forEachRecent(count, entry -> {
+            results.setLength(0);
+            lines.add(Map.of(
+                    "ago", formatAge(now - entry.time()),
+                    "notation", Text.escape(entry.notation()),
+                    "results", entry.appendResults(results).toString(),
+                    "total", Long.toString(entry.total())
+            ));
+        });
+        Text.sendLocale(plugin, sender, "messages.history.header", Map.of(
+                "count", Integer.toString(lines.size()),
+                "player", target.getName()
+        ));
+        for (Map<String, String> line : lines) {
+            Text.sendLocale(plugin, sender, "messages.history.entry", line);
+        }
+    }
 
-        String soundKey = soundCfg.getString("sound_key", "minecraft:block.amethyst_block.chime");
-        float volume = (float) soundCfg.getDouble("volume", 0.7D);
-        float pitch = (float) soundCfg.getDouble("pitch", 1.2D);
+    private static boolean isCount(String arg) {
+        if (arg.isEmpty() || arg.length() > 9) return false;
+        for (int i = 0; i < arg.length(); i++) {
+            if (!Character.isDigit(arg.charAt(i))) return false;
+        }
+        return true;
+    }
 
-        if (soundKey == null || soundKey.isBlank()) {
-            warnInvalidSound("(empty)", "sound key missing");
+    /** Coarse age for history lines: {@code 42s}, {@code 5m}, {@code 3h}, {@code 2d}. */
+    static String formatAge(long millis) {
+        long seconds = Math.max(0L, millis / 1000L);
+        if (seconds < 60) return seconds + "s";
+        if (seconds < 3_600) return seconds / 60 + "m";
+        if (seconds < 86_400) return seconds / 3_600 + "h";
+        return seconds / 86_400 + "d";
+    }
+
+    /** {@code /roll stats <NdM> [total]}: exact odds for a plain pool, computed off the main thread. */
+    private void handleStats(CommandSender sender, String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            Text.sendLocale(plugin, sender, "messages.stats.usage");
             return;
         }
 
-        NamespacedKey key = NamespacedKey.fromString(soundKey);
-        if (key == null) {
-            warnInvalidSound(soundKey, "invalid namespaced key");
+        final RollSettings settings = plugin.getRollSettings();
+        final int maxDice = settings.maxDice();
+        final int maxFaces = settings.maxFaces();
+        final boolean allowShorthand = settings.allowShorthand();
+
+        final DiceParser.DiceSpec spec;
+        try {
+            spec = DiceParser.parse(args[1].trim(), allowShorthand);
+        } catch (DiceParser.DiceParseException ex) {
+            sendParseError(plugin, sender, ex, settings);
+            return;
+        }
+        final String notation = spec.dice() + "d" + spec.faces();
+        if (spec.dice() > maxDice || spec.faces() > maxFaces) {
+            sendParseError(plugin, sender, new DiceParser.DiceParseException(
+                    DiceParser.ParseError.LIMITS_EXCEEDED, allowShorthand, notation), settings);
             return;
         }
 
+        final Long target;
         try {
-            player.playSound(player.getLocation(), soundKey, volume, pitch);
-        } catch (Exception ex) {
-            warnInvalidSound(soundKey, ex.getMessage());
+            target = args.length == 3 ? Long.valueOf(args[2].trim()) : null;
+        } catch (NumberFormatException ex) {
+            Text.sendLocale(plugin, sender, "messages.stats.usage");
+            return;
+        }
+
+        if (!DiceDistribution.isSupported(spec.dice(), spec.faces())) {
+            Text.sendLocale(plugin, sender, "messages.stats.too_large", Map.of("notation", notation));
+            return;
+        }
+
+        DiceDistribution cached = DiceDistribution.cached(spec.dice(), spec.faces());
+        if (cached != null) {
+            sendStats(sender, notation, cached, target);
+            return;
+        }
+        // Large pools take a few FFTs; keep them off the tick and answer on the sender's thread
+        final TaskScheduler scheduler = plugin.getTaskScheduler();
+        scheduler.runAsync(() -> {
+            DiceDistribution distribution = DiceDistribution.of(spec.dice(), spec.faces());
+            scheduler.runFor(sender, () -> sendStats(sender, notation, distribution, target));
+        });
+    }
+
+    private void sendStats(CommandSender sender, String notation, DiceDistribution distribution, Long target) {
+        Text.sendLocale(plugin, sender, "messages.stats.summary", Map.of(
+                "notation", notation,
+                "min", Long.toString(distribution.min()),
+                "max", Long.toString(distribution.max()),
+                "mean", formatNumber(distribution.mean()),
+                "variance", formatNumber(distribution.variance()),
+                "stddev", formatNumber(distribution.standardDeviation())
+        ));
+        Text.sendLocale(plugin, sender, "messages.stats.percentiles", Map.of(
+                "p10", Long.toString(distribution.percentile(0.10)),
+                "p25", Long.toString(distribution.percentile(0.25)),
+                "p50", Long.toString(distribution.percentile(0.50)),
+                "p75", Long.toString(distribution.percentile(0.75)),
+                "p90", Long.toString(distribution.percentile(0.90))
+        ));
+        if (target != null) {
+            Text.sendLocale(plugin, sender, "messages.stats.at_least", Map.of(
+                    "target", Long.toString(target),
+                    "chance", formatChance(distribution.atLeast(target))
+            ));
         }
     }
 
-    private void warnInvalidSound(String soundKey, String reason) {
-        if (soundKey.equals(lastInvalidSoundKey)) return;
-        lastInvalidSoundKey = soundKey;
-        plugin.getLogger().warning("[PocketDice] Invalid roll sound '" + soundKey + "': " + reason + ". Sound disabled for this session.");
+    static String formatNumber(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /** Percentage with two decimals, switching to scientific notation for very unlikely outcomes. */
+    private static String formatChance(double probability) {
+        double percent = probability * 100.0;
+        if (percent == 0.0 || percent == 100.0) {
+            return (int) percent + "%";
+        }
+        return percent >= 0.01
+                ? String.format(Locale.ROOT, "%.2f%%", percent)
+                : String.format(Locale.ROOT, "%.2e%%", percent);
+    }
+
+    /** Report a rejected notation to {@code sender}; shared with {@code /pocketdice simulate}. */
+    static void sendParseError(PocketDice plugin, CommandSender sender, DiceParser.DiceParseException ex,
+                               RollSettings settings) {
+        plugin.getCounters().parseError(ex.getError());
+        if (ex.getError() == DiceParser.ParseError.LIMITS_EXCEEDED) {
+            // Inform only the roller
+            Text.sendLocale(plugin, sender, "messages.roll.limits_exceeded", Map.of(
+                    "notation", Text.escape(ex.getNotation()),
+                    "max_dice", Integer.toString(settings.maxDice()),
+                    "max_faces", Integer.toString(settings.maxFaces())
+            ));
+            return;
+        }
+        if (ex.getError() == DiceParser.ParseError.SUM_ONLY_MODIFIERS) {
+            Text.sendLocale(plugin, sender, "messages.roll.sum_only_modifiers", Map.of(
+                    "notation", Text.escape(ex.getNotation()),
+                    "threshold", Integer.toString(settings.sumOnlyThreshold())
+            ));
+            return;
+        }
+
+        String key = switch (ex.getError()) {
+            case MISSING_NOTATION -> "messages.roll.missing_notation";
+            case INVALID_NOTATION -> "messages.roll.invalid_notation";
+            case DICE_NAN -> "messages.roll.dice_nan";
+            case FACES_NAN -> "messages.roll.faces_nan";
+            case DICE_TOO_LOW -> "messages.roll.dice_too_low";
+            case FACES_TOO_LOW -> "messages.roll.faces_too_low";
+            case LIMITS_EXCEEDED -> "messages.roll.limits_exceeded";
+            case SUM_ONLY_MODIFIERS -> "messages.roll.sum_only_modifiers";
+        };
+
+        Map<String, String> placeholders = Map.of("or_d", ex.isShorthandAllowed() ? " or d8" : "");
+        Text.sendLocale(plugin, sender, key, placeholders);
     }
 }
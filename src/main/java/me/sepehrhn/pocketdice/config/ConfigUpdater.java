@@ -30,6 +30,13 @@ public final class ConfigUpdater {
         }
     }
 
+    /** Parse config.yml from disk with the bundled defaults attached; the plugin's live config is not touched. */
+    public static YamlConfiguration loadConfig(JavaPlugin plugin) {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new File(plugin.getDataFolder(), "config.yml"));
+        config.setDefaults(loadDefaultConfig(plugin));
+        return config;
+    }
+
     /**
      * Update the runtime config.yml by running versioned migrations and merging in new defaults
      * without overwriting user-defined values.
@@ -81,7 +88,9 @@ public final class ConfigUpdater {
                 case 3 -> migrateToV3(config);
                 case 4 -> migrateToV4(config);
                 case 5 -> migrateToV5(config);
+                case 18 -> migrateToV18(config);
                 default -> {
+                    // Versions that only add keys need no migration; mergeDefaults fills them in
                 }
             }
         }
@@ -117,6 +126,13 @@ public final class ConfigUpdater {
         config.set("updates.modrinth_project_slug", null);
     }
 
+    private static void migrateToV18(YamlConfiguration config) {
+        // Sum-only rolling is now opt-in; turn off the previously shipped default of 100
+        if (config.getInt("sum_only_threshold", 0) == 100) {
+            config.set("sum_only_threshold", 0);
+        }
+    }
+
     private static boolean mergeDefaults(ConfigurationSection existing, ConfigurationSection defaults) {
         boolean changed = false;
         for (String key : defaults.getKeys(false)) {
@@ -0,0 +1,65 @@
+package me.sepehrhn.pocketdice.config;
+
+import me.sepehrhn.pocketdice.load.LoadLevel;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.logging.Logger;
+
+/** Validated {@code load_shedding} section: the MSPT at which each {@link LoadLevel} starts and what it changes. */
+public record LoadSettings(
+        boolean enabled,
+        double noSoundMspt,
+        double reducedRadiusMspt,
+        double summaryOnlyMspt,
+        double deferredMspt,
+        double hysteresis,
+        int reducedRadius,
+        int summaryDice
+) {
+
+    public static LoadSettings load(ConfigurationSection cfg, Logger logger) {
+        boolean enabled = cfg.getBoolean("load_shedding.enabled", false);
+        double noSound = threshold(cfg, "no_sound", 40D);
+        double reducedRadius = threshold(cfg, "reduced_radius", 45D);
+        double summaryOnly = threshold(cfg, "summary_only", 50D);
+        double deferred = threshold(cfg, "deferred", 55D);
+        double hysteresis = cfg.getDouble("load_shedding.hysteresis", 5D);
+        if (!(hysteresis >= 0)) {
+            logger.warning("load_shedding.hysteresis must not be negative; using 5.");
+            hysteresis = 5D;
+        }
+        int radius = Math.max(0, cfg.getInt("load_shedding.reduced_radius", 8));
+        int summaryDice = Math.max(0, cfg.getInt("load_shedding.summary_dice", 10));
+        return new LoadSettings(enabled, noSound, reducedRadius, summaryOnly, deferred, hysteresis, radius, summaryDice);
+    }
+
+    /** MSPT at which {@code level} starts; infinite for disabled levels and 0 for {@link LoadLevel#NORMAL}. */
+    public double threshold(LoadLevel level) {
+        return switch (level) {
+            case NORMAL -> 0D;
+            case NO_SOUND -> noSoundMspt;
+            case REDUCED_RADIUS -> reducedRadiusMspt;
+            case SUMMARY_ONLY -> summaryOnlyMspt;
+            case DEFERRED -> deferredMspt;
+        };
+    }
+
+    /**
+     * Whether {@code level} sheds anything. A level switched off with a 0 threshold is never entered, but a higher
+     * level can still be active, so check this as well as {@link LoadLevel#atLeast}.
+     */
+    public boolean enabled(LoadLevel level) {
+        return threshold(level) != Double.POSITIVE_INFINITY;
+    }
+
+    /** True if shedding is on and {@code current} includes the enabled {@code level}. */
+    public boolean sheds(LoadLevel current, LoadLevel level) {
+        return enabled && enabled(level) && current.atLeast(level);
+    }
+
+    // 0 (or less) switches a level off
+    private static double threshold(ConfigurationSection cfg, String name, double def) {
+        double value = cfg.getDouble("load_shedding.thresholds." + name, def);
+        return value > 0 ? value : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,128 @@
+package me.sepehrhn.pocketdice.config;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.DiceParser.DiceParseException;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.sound.Sound;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.logging.Logger;
+
+/**
+ * Validated snapshot of the settings /roll needs, built on enable and reload and published as a whole.
+ * Invalid values are logged once by {@link #load} and replaced by their defaults (or disable the sound).
+ * The roll sound is resolved here into a ready {@link Sound}; it is {@code null} when the sound is off.
+ */
+public record RollSettings(
+        String defaultNotation,
+        boolean allowShorthand,
+        int maxDice,
+        int maxFaces,
+        int radius,
+        int sumOnlyThreshold,
+        int notationCacheSize,
+        long simulationMaxTrials,
+        Sound rollSound,
+        boolean rollSoundToRecipients,
+        boolean rateLimitEnabled,
+        int rateLimitBurst,
+        double rateLimitRefillPerSecond,
+        int historySize,
+        int historyMaxResults
+) {
+
+    public static final String DEFAULT_NOTATION = "1d100";
+    public static final String DEFAULT_SOUND_KEY = "minecraft:block.amethyst_block.chime";
+    /** Largest face count; die values above it would collide with the flag bits of stored history and audit dice. */
+    public static final int MAX_FACES = (1 << 30) - 1;
+    private static final int MAX_BURST = 10_000;
+    private static final double MIN_REFILL_PER_SECOND = 0.001D;
+
+    public static RollSettings load(ConfigurationSection cfg, Logger logger) {
+        boolean allowShorthand = cfg.contains("allow_shorthand")
+                ? cfg.getBoolean("allow_shorthand", true)
+                : cfg.getBoolean("allow_shorthand_d", true);
+        int maxDice = atLeast(cfg, logger, "max_dice", 50, 1);
+        int maxFaces = atLeast(cfg, logger, "max_faces", 1000, 2);
+        if (maxFaces > MAX_FACES) {
+            logger.warning("max_faces must be <= " + MAX_FACES + " (was " + maxFaces + "); using " + MAX_FACES + ".");
+            maxFaces = MAX_FACES;
+        }
+        int radius = atLeast(cfg, logger, "radius", 16, 0);
+        int sumOnlyThreshold = cfg.getInt("sum_only_threshold", 0);
+        int notationCacheSize = Math.max(0, cfg.getInt("notation_cache_size", 256));
+        long maxTrials = Math.max(1L, cfg.getLong("simulation.max_trials", 50_000_000L));
+
+        String defaultNotation = cfg.getString("default_notation", DEFAULT_NOTATION);
+        if (defaultNotation == null || defaultNotation.isBlank()) {
+            logger.warning("default_notation is empty; using " + DEFAULT_NOTATION + ".");
+            defaultNotation = DEFAULT_NOTATION;
+        } else {
+            defaultNotation = defaultNotation.trim();
+            try {
+                DiceExpression.compile(defaultNotation, allowShorthand).applyLimits(maxDice, maxFaces, sumOnlyThreshold);
+            } catch (DiceParseException ex) {
+                logger.warning("default_notation '" + defaultNotation + "' is not a valid roll (" + ex.getError()
+                        + "); using " + DEFAULT_NOTATION + ".");
+                defaultNotation = DEFAULT_NOTATION;
+            }
+        }
+
+        boolean soundEnabled = cfg.getBoolean("sounds.roll.enabled", true);
+        String soundKey = cfg.getString("sounds.roll.sound_key", DEFAULT_SOUND_KEY);
+        float volume = (float) cfg.getDouble("sounds.roll.volume", 0.7D);
+        float pitch = (float) cfg.getDouble("sounds.roll.pitch", 1.2D);
+        Key soundName = null;
+        if (soundEnabled) {
+            NamespacedKey key = soundKey == null || soundKey.isBlank() ? null : NamespacedKey.fromString(soundKey);
+            if (key == null) {
+                boolean missing = soundKey == null || soundKey.isBlank();
+                logger.warning("Invalid roll sound '" + (missing ? "(empty)" : soundKey) + "': "
+                        + (missing ? "sound key missing" : "invalid namespaced key")
+                        + ". Roll sound disabled until the config is fixed and reloaded.");
+            } else {
+                soundName = key;
+            }
+        }
+        if (volume < 0f) {
+            logger.warning("sounds.roll.volume must not be negative; using 0.");
+            volume = 0f;
+        }
+        if (pitch < 0.5f || pitch > 2.0f) {
+            logger.warning("sounds.roll.pitch " + pitch + " is outside 0.5-2.0; clamping.");
+            pitch = Math.max(0.5f, Math.min(2.0f, pitch));
+        }
+        // Built once here; every roll reuses the same immutable Sound
+        Sound rollSound = soundName == null ? null : Sound.sound(soundName, Sound.Source.MASTER, volume, pitch);
+        boolean toRecipients = cfg.getBoolean("sounds.roll.play_to_recipients", false);
+
+        boolean rateLimitEnabled = cfg.getBoolean("rate_limit.enabled", false);
+        int burst = atLeast(cfg, logger, "rate_limit.burst", 5, 1);
+        if (burst > MAX_BURST) {
+            logger.warning("rate_limit.burst must be <= " + MAX_BURST + " (was " + burst + "); using " + MAX_BURST + ".");
+            burst = MAX_BURST;
+        }
+        double refill = cfg.getDouble("rate_limit.refill_per_second", 1.0D);
+        if (!(refill >= MIN_REFILL_PER_SECOND)) {
+            logger.warning("rate_limit.refill_per_second must be >= " + MIN_REFILL_PER_SECOND + " (was " + refill
+                    + "); using 1.0.");
+            refill = 1.0D;
+        }
+
+        return new RollSettings(defaultNotation, allowShorthand, maxDice, maxFaces, radius, sumOnlyThreshold,
+                notationCacheSize, maxTrials,
+                rollSound, toRecipients,
+                rateLimitEnabled, burst, refill,
+                Math.max(0, cfg.getInt("history.size", 20)), Math.max(0, cfg.getInt("history.max_results", 500)));
+    }
+
+    private static int atLeast(ConfigurationSection cfg, Logger logger, String path, int def, int min) {
+        int value = cfg.getInt(path, def);
+        if (value < min) {
+            logger.warning(path + " must be >= " + min + " (was " + value + "); using " + def + ".");
+            return def;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,159 @@
+package me.sepehrhn.pocketdice.history;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.util.function.Consumer;
+
+/**
+ * One player's last rolls in a fixed ring of parallel primitive arrays.
+ * <p>
+ * A slot holds the time, the dice count and largest face packed into one {@code int}, the total, the compiled
+ * expression (shared with the notation cache) and the position of its dice in an {@code int[]} arena. The arena
+ * is a ring too, so a busy player's oldest rolls lose their dice list before the rolls themselves are dropped.
+ * Dice are stored with their dropped/exploded flags in the top bits, which is why {@code max_faces} is capped at
+ * {@link me.sepehrhn.pocketdice.config.RollSettings#MAX_FACES}. Nothing grows after construction.
+ */
+public final class HistoryBuffer {
+
+    private static final int DROPPED = 1 << 30;
+    private static final int EXPLODED = 1 << 31;
+    private static final int VALUE_MASK = DROPPED - 1;
+    private static final int PACKED_MAX = 0xFFFF;
+
+    private final long[] times;
+    private final int[] packed;
+    private final long[] totals;
+    private final long[] starts;
+    private final int[] counts;
+    private final DiceExpression[] expressions;
+    private final int[] arena;
+    private final Entry view = new Entry();
+    private long written;
+    private long arenaHead;
+
+    /**
+     * @param rolls      rolls kept
+     * @param maxResults individual dice kept across those rolls
+     */
+    public HistoryBuffer(int rolls, int maxResults) {
+        if (rolls < 1) {
+            throw new IllegalArgumentException("rolls must be >= 1");
+        }
+        this.times = new long[rolls];
+        this.packed = new int[rolls];
+        this.totals = new long[rolls];
+        this.starts = new long[rolls];
+        this.counts = new int[rolls];
+        this.expressions = new DiceExpression[rolls];
+        this.arena = new int[Math.max(0, maxResults)];
+    }
+
+    /** Record a roll; {@code result} is read immediately and may be reused afterwards. */
+    public synchronized void add(long time, DiceExpression expression, RollResult result) {
+        int slot = (int) (written % times.length);
+        times[slot] = time;
+        packed[slot] = Math.min(expression.diceCount(), PACKED_MAX) << 16 | Math.min(expression.maxFaces(), PACKED_MAX);
+        totals[slot] = result.total();
+        expressions[slot] = expression;
+        starts[slot] = arenaHead;
+
+        int count = result.size();
+        if (count > arena.length) {
+            counts[slot] = -1;
+        } else if (count > 0) {
+            counts[slot] = count;
+            int at = (int) (arenaHead % arena.length);
+            for (int i = 0; i < count; i++) {
+                int value = result.value(i) & VALUE_MASK;
+                if (result.isDropped(i)) value |= DROPPED;
+                if (result.isExploded(i)) value |= EXPLODED;
+                arena[at] = value;
+                if (++at == arena.length) at = 0;
+            }
+            arenaHead += count;
+        } else {
+            counts[slot] = 0;
+        }
+        written++;
+    }
+
+    /** Rolls currently held. */
+    public synchronized int size() {
+        return (int) Math.min(written, times.length);
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * Visit up to {@code limit} rolls, newest first, straight from the ring. The buffer stays locked during the
+     * visit, and the {@link Entry} passed in is a reused view that is only valid inside the callback.
+     */
+    public synchronized void forEachRecent(int limit, Consumer<Entry> visitor) {
+        int n = (int) Math.min(Math.min(written, times.length), Math.max(0, limit));
+        for (int i = 0; i < n; i++) {
+            view.slot = (int) ((written - 1 - i) % times.length);
+            visitor.accept(view);
+        }
+    }
+
+    /** Read-only view of one slot. */
+    public final class Entry {
+        private int slot;
+
+        private Entry() {
+        }
+
+        /** Epoch milliseconds of the roll. */
+        public long time() {
+            return times[slot];
+        }
+
+        public String notation() {
+            return expressions[slot].notation();
+        }
+
+        /** Dice requested, saturating at 65535. */
+        public int dice() {
+            return packed[slot] >>> 16;
+        }
+
+        /** Largest face count, saturating at 65535. */
+        public int faces() {
+            return packed[slot] & PACKED_MAX;
+        }
+
+        public long total() {
+            return totals[slot];
+        }
+
+        /** False if the roll had more dice than the arena holds or newer rolls have overwritten them. */
+        public boolean hasResults() {
+            return counts[slot] >= 0 && arenaHead - starts[slot] <= arena.length;
+        }
+
+        /** Append the dice as {@code [7, (2), 6!]}, like the roll message, or {@code [Σtotal]} if none are kept. */
+        public StringBuilder appendResults(StringBuilder out) {
+            int count = counts[slot];
+            if (!hasResults() || count == 0) {
+                return out.append("[Σ").append(totals[slot]).append(']');
+            }
+            out.append('[');
+            int at = (int) (starts[slot] % arena.length);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) out.append(", ");
+                int value = arena[at];
+                if ((value & DROPPED) != 0) {
+                    out.append('(').append(value & VALUE_MASK).append(')');
+                } else {
+                    out.append(value & VALUE_MASK);
+                }
+                if ((value & EXPLODED) != 0) out.append('!');
+                if (++at == arena.length) at = 0;
+            }
+            return out.append(']');
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package me.sepehrhn.pocketdice.history;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Recent rolls of every online player for {@code /roll history}; one bounded {@link HistoryBuffer} per UUID. */
+public final class RollHistory {
+
+    private final Map<UUID, HistoryBuffer> buffers = new ConcurrentHashMap<>();
+    private volatile int rolls;
+    private volatile int maxResults;
+
+    /** @param rolls rolls kept per player; 0 disables history */
+    public RollHistory(int rolls, int maxResults) {
+        this.rolls = rolls;
+        this.maxResults = maxResults;
+    }
+
+    /** Apply new bounds; existing histories are dropped when the bounds change. */
+    public void configure(int rolls, int maxResults) {
+        if (rolls != this.rolls || maxResults != this.maxResults) {
+            this.rolls = rolls;
+            this.maxResults = maxResults;
+            buffers.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return rolls > 0;
+    }
+
+    public int rollsPerPlayer() {
+        return rolls;
+    }
+
+    public void record(UUID player, DiceExpression expression, RollResult result) {
+        int capacity = rolls;
+        if (capacity <= 0) return;
+        HistoryBuffer buffer = buffers.get(player);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(player, id -> new HistoryBuffer(capacity, maxResults));
+        }
+        buffer.add(System.currentTimeMillis(), expression, result);
+    }
+
+    /** The player's buffer, or {@code null} if they have not rolled since joining. */
+    public HistoryBuffer get(UUID player) {
+        return buffers.get(player);
+    }
+
+    /** Release the buffer of a player who left. */
+    public void forget(UUID player) {
+        buffers.remove(player);
+    }
+
+    public void clear() {
+        buffers.clear();
+    }
+}
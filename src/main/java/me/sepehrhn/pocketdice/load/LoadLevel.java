@@ -0,0 +1,29 @@
+package me.sepehrhn.pocketdice.load;
+
+import java.util.Locale;
+
+/**
+ * How much roll work is shed while the server is overloaded; each level includes the enabled ones before it (see
+ * {@link me.sepehrhn.pocketdice.config.LoadSettings#sheds}).
+ */
+public enum LoadLevel {
+    /** Full behaviour. */
+    NORMAL,
+    /** No roll sound. */
+    NO_SOUND,
+    /** Announcements reach a smaller radius. */
+    REDUCED_RADIUS,
+    /** Rolls with many dice show only their total. */
+    SUMMARY_ONLY,
+    /** Announcements are sent on the next tick instead of inside the command. */
+    DEFERRED;
+
+    public boolean atLeast(LoadLevel other) {
+        return ordinal() >= other.ordinal();
+    }
+
+    /** Config and display name, e.g. {@code reduced_radius}. */
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
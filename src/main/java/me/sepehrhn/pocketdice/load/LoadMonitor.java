@@ -0,0 +1,114 @@
+package me.sepehrhn.pocketdice.load;
+
+import me.sepehrhn.pocketdice.config.LoadSettings;
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
+
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the server's average tick time and turns it into a {@link LoadLevel} for {@code /roll}.
+ * <p>
+ * Once a second the average MSPT is sampled off the main thread. The level jumps straight up to the highest one whose
+ * threshold is reached, but only steps down once MSPT is {@code hysteresis} milliseconds below the current level's
+ * threshold, so a server hovering around a threshold does not flap between levels.
+ */
+public final class LoadMonitor {
+
+    private static final long SAMPLE_PERIOD_TICKS = 20L;
+    private static final LoadLevel[] LEVELS = LoadLevel.values();
+
+    private final Logger logger;
+    private final DoubleSupplier mspt;
+    private volatile LoadSettings settings;
+    private volatile LoadLevel level = LoadLevel.NORMAL;
+    private volatile double lastMspt = Double.NaN;
+    private TaskScheduler.Task sampleTask;
+
+    /** @param mspt source of the average milliseconds per tick, e.g. {@code Server#getAverageTickTime} */
+    public LoadMonitor(Logger logger, DoubleSupplier mspt, LoadSettings settings) {
+        this.logger = logger;
+        this.mspt = mspt;
+        this.settings = settings;
+    }
+
+    public LoadLevel level() {
+        return level;
+    }
+
+    public LoadSettings settings() {
+        return settings;
+    }
+
+    /** Most recent sample, or NaN before the first one (or when the server does not report MSPT). */
+    public double lastMspt() {
+        return lastMspt;
+    }
+
+    /** Apply new settings; the level is re-evaluated at the next sample. */
+    public synchronized void configure(LoadSettings updated) {
+        settings = updated;
+        if (!updated.enabled()) {
+            change(LoadLevel.NORMAL, lastMspt);
+        }
+    }
+
+    public synchronized void start(TaskScheduler scheduler) {
+        stop();
+        sampleTask = scheduler.runAsyncTimer(this::sampleServer, SAMPLE_PERIOD_TICKS, SAMPLE_PERIOD_TICKS);
+    }
+
+    public synchronized void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+
+    private void sampleServer() {
+        double value;
+        try {
+            value = mspt.getAsDouble();
+        } catch (UnsupportedOperationException ex) {
+            // Folia has no global tick; regions are not comparable to one server-wide MSPT
+            logger.info("Server does not report a global tick time; load shedding is disabled.");
+            stop();
+            return;
+        }
+        sample(value);
+    }
+
+    /** Feed one MSPT reading and return the resulting level. */
+    synchronized LoadLevel sample(double value) {
+        lastMspt = value;
+        LoadSettings current = settings;
+        if (!current.enabled() || Double.isNaN(value)) {
+            return change(LoadLevel.NORMAL, value);
+        }
+
+        LoadLevel next = level;
+        for (int i = LEVELS.length - 1; i > next.ordinal(); i--) {
+            if (value >= current.threshold(LEVELS[i])) {
+                next = LEVELS[i];
+                break;
+            }
+        }
+        if (next == level) {
+            while (next != LoadLevel.NORMAL && value < current.threshold(next) - current.hysteresis()) {
+                next = LEVELS[next.ordinal() - 1];
+            }
+        }
+        return change(next, value);
+    }
+
+    private LoadLevel change(LoadLevel next, double value) {
+        LoadLevel previous = level;
+        if (next != previous) {
+            level = next;
+            logger.info(String.format(Locale.ROOT, "Server load %.1f ms/tick: roll load level %s -> %s.",
+                    value, previous.key(), next.key()));
+        }
+        return next;
+    }
+}
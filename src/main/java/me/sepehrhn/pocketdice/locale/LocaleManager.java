@@ -1,27 +1,35 @@
 package me.sepehrhn.pocketdice.locale;
 
 import me.sepehrhn.pocketdice.PocketDice;
+import me.sepehrhn.pocketdice.metrics.LatencyMetrics;
+import me.sepehrhn.pocketdice.metrics.LatencyStage;
+import me.sepehrhn.pocketdice.util.Text;
+import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.logging.Logger;
 
-/** Loads locale files and serves translated strings with placeholder support. */
+/**
+ * Loads locale files and serves translated strings with placeholder support.
+ * <p>
+ * Everything a message needs lives in one immutable {@link Snapshot}. {@link #load} builds a new one without
+ * publishing it (safe on a worker thread), and {@link #apply} swaps it in with a single volatile write.
+ */
 public class LocaleManager {
 
     private static final String DEFAULT_LOCALE = "en_US";
 
     private final PocketDice plugin;
     private final Logger logger;
-    private final Map<String, YamlConfiguration> locales = new HashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
 
     public LocaleManager(PocketDice plugin) {
         this.plugin = plugin;
@@ -29,13 +37,20 @@ public class LocaleManager {
     }
 
     public void reload() {
-        locales.clear();
+        apply(load());
+    }
+
+    /** Merge, read and compile every locale file; does file I/O and leaves the live messages untouched. */
+    public Snapshot load() {
+        LatencyMetrics metrics = plugin.getLatencyMetrics();
+        long start = metrics.start();
         try {
             LocaleUpdater.updateLocales(plugin);
         } catch (IOException ex) {
             logger.warning("Failed to update locale files: " + ex.getMessage());
         }
 
+        Map<String, YamlConfiguration> locales = new HashMap<>();
         File localeDir = new File(plugin.getDataFolder(), "locale");
         File[] files = localeDir.listFiles((dir, name) -> name.toLowerCase(Locale.ROOT).endsWith(".yml"));
         if (files != null) {
@@ -53,9 +68,62 @@ public class LocaleManager {
             plugin.saveResource("locale/" + DEFAULT_LOCALE + ".yml", true);
             locales.put(DEFAULT_LOCALE, YamlConfiguration.loadConfiguration(defaultFile));
         }
+        Snapshot loaded = compile(locales);
+        metrics.lap(LatencyStage.LOCALE_LOAD, start);
+        return loaded;
+    }
+
+    /** Compile locale files that are already read, keyed by locale code; {@code en_US} fills in missing keys. */
+    public static Snapshot compile(Map<String, YamlConfiguration> locales) {
+        return new Snapshot(compileTemplates(locales));
+    }
+
+    /** Publish a snapshot from {@link #load}; messages already being rendered finish on the old one. */
+    public void apply(Snapshot loaded) {
+        LatencyMetrics metrics = plugin.getLatencyMetrics();
+        long start = metrics.start();
+        snapshot = loaded;
+        metrics.lap(LatencyStage.LOCALE_APPLY, start);
+    }
+
+    /** The current messages; hold on to it to render several messages from the same reload. */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /** Compile every string of every locale once; each locale's prefix is inlined into its templates. */
+    private static Map<String, Map<String, MessageTemplate>> compileTemplates(Map<String, YamlConfiguration> locales) {
+        YamlConfiguration def = locales.get(DEFAULT_LOCALE);
+        Map<String, Map<String, MessageTemplate>> compiled = new HashMap<>();
+        for (Map.Entry<String, YamlConfiguration> locale : locales.entrySet()) {
+            YamlConfiguration yaml = locale.getValue();
+            String prefix = yaml.getString("messages.prefix", "");
+            Map<String, String> inline = Map.of("prefix", prefix == null ? "" : prefix);
+
+            Map<String, MessageTemplate> messages = new HashMap<>();
+            if (def != null && yaml != def) {
+                compileInto(messages, def, inline);
+            }
+            compileInto(messages, yaml, inline);
+            compiled.put(locale.getKey(), Map.copyOf(messages));
+        }
+        return Map.copyOf(compiled);
+    }
+
+    private static void compileInto(Map<String, MessageTemplate> messages, YamlConfiguration yaml,
+                                    Map<String, String> inline) {
+        for (String key : yaml.getKeys(true)) {
+            if (yaml.get(key) instanceof String raw) {
+                messages.put(key, MessageTemplate.compile(raw, inline));
+            }
+        }
     }
 
     public String resolveLocaleFor(Player player) {
+        return resolve(player);
+    }
+
+    private static String resolve(Player player) {
         if (player == null) return DEFAULT_LOCALE;
         String raw = player.getLocale();
         if (raw == null || raw.isBlank()) return DEFAULT_LOCALE;
@@ -68,13 +136,31 @@ public class LocaleManager {
         return raw.toLowerCase(Locale.ROOT);
     }
 
+    /** The locale whose file will actually be used for {@code player}: their own if loaded, else the default. */
+    public String effectiveLocaleFor(Player player) {
+        return snapshot.effectiveLocaleFor(player);
+    }
+
+    /** Format {@code path} in an already resolved locale, e.g. one from {@link #effectiveLocaleFor}. */
+    public String get(String localeCode, String path, Map<String, String> placeholders) {
+        return snapshot.get(localeCode, path, placeholders);
+    }
+
+    /** Rendered and parsed in an already resolved locale; constant messages reuse a cached component. */
+    public Component component(String localeCode, String path, Map<String, String> placeholders) {
+        return snapshot.component(localeCode, path, placeholders);
+    }
+
+    public Component component(CommandSender sender, String path, Map<String, String> placeholders) {
+        return snapshot.component(localeOf(sender), path, placeholders);
+    }
+
     public String get(CommandSender sender, String path) {
         return get(sender, path, Collections.emptyMap());
     }
 
     public String get(CommandSender sender, String path, Map<String, String> placeholders) {
-        String localeCode = (sender instanceof Player player) ? resolveLocaleFor(player) : DEFAULT_LOCALE;
-        return format(localeCode, path, placeholders);
+        return snapshot.get(localeOf(sender), path, placeholders);
     }
 
     public String getDefault(String path) {
@@ -82,55 +168,43 @@ public class LocaleManager {
     }
 
     public String getDefault(String path, Map<String, String> placeholders) {
-        return format(DEFAULT_LOCALE, path, placeholders);
+        return snapshot.get(DEFAULT_LOCALE, path, placeholders);
     }
 
-    private YamlConfiguration loadDefaultResource() {
-        var stream = plugin.getResource("locale/" + DEFAULT_LOCALE + ".yml");
-        if (stream == null) {
-            logger.warning("Default locale resource missing from JAR: locale/" + DEFAULT_LOCALE + ".yml");
-            return null;
-        }
-        try (var reader = new java.io.InputStreamReader(stream, StandardCharsets.UTF_8)) {
-            return YamlConfiguration.loadConfiguration(reader);
-        } catch (java.io.IOException ex) {
-            logger.warning("Failed to load default locale resource: " + ex.getMessage());
-            return null;
-        }
+    private static String localeOf(CommandSender sender) {
+        return (sender instanceof Player player) ? resolve(player) : DEFAULT_LOCALE;
     }
 
-    private String format(String localeCode, String path, Map<String, String> placeholders) {
-        YamlConfiguration locale = locales.getOrDefault(localeCode, locales.get(DEFAULT_LOCALE));
-        if (locale == null) {
-            return path;
+    /** Compiled messages per locale from one load, with keys missing from a locale filled in from the default. */
+    public static final class Snapshot {
+
+        private final Map<String, Map<String, MessageTemplate>> templates;
+
+        private Snapshot(Map<String, Map<String, MessageTemplate>> templates) {
+            this.templates = templates;
         }
 
-        String message = locale.getString(path);
-        if (message == null) {
-            // Fallback to default locale
-            if (!DEFAULT_LOCALE.equals(localeCode)) {
-                YamlConfiguration def = locales.get(DEFAULT_LOCALE);
-                if (def != null) {
-                    message = def.getString(path);
-                }
-            }
+        public String effectiveLocaleFor(Player player) {
+            String code = resolve(player);
+            return templates.containsKey(code) ? code : DEFAULT_LOCALE;
         }
-        if (message == null) {
-            return path;
+
+        public String get(String localeCode, String path, Map<String, String> placeholders) {
+            MessageTemplate template = template(localeCode, path);
+            return template == null ? path : template.render(placeholders);
         }
 
-        Map<String, String> mutable = new HashMap<>(placeholders);
-        if (!mutable.containsKey("prefix")) {
-            String prefix = locale.getString("messages.prefix", "");
-            if (prefix == null) prefix = "";
-            mutable.put("prefix", prefix);
+        public Component component(String localeCode, String path, Map<String, String> placeholders) {
+            MessageTemplate template = template(localeCode, path);
+            return template == null ? Text.toComponent(path) : template.toComponent(placeholders);
         }
 
-        for (Map.Entry<String, String> entry : mutable.entrySet()) {
-            String key = entry.getKey();
-            String val = entry.getValue() == null ? "" : entry.getValue();
-            message = message.replace("{" + key + "}", val);
+        private MessageTemplate template(String localeCode, String path) {
+            Map<String, MessageTemplate> messages = templates.get(localeCode);
+            if (messages == null) {
+                messages = templates.get(DEFAULT_LOCALE);
+            }
+            return messages == null ? null : messages.get(path);
         }
-        return message;
     }
 }
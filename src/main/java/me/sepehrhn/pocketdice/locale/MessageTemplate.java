@@ -0,0 +1,115 @@
+package me.sepehrhn.pocketdice.locale;
+
+import me.sepehrhn.pocketdice.util.Text;
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A locale string split once into literal segments and {@code {placeholder}} slots.
+ * <p>
+ * Rendering is one pass that appends literals and slot values into a presized builder; values are inserted
+ * verbatim and never rescanned for further placeholders. Slots may carry a default (the locale's prefix), and
+ * slots with neither a value nor a default are left as written. Templates without slots also cache their
+ * parsed component, so constant messages skip MiniMessage entirely after the first send.
+ */
+public final class MessageTemplate {
+
+    /** literals.length == slots.length + 1; literals[i] precedes slots[i]. */
+    private final String[] literals;
+    private final String[] slots;
+    private final String[] defaults;
+    private final int literalLength;
+    private volatile Component component;
+
+    private MessageTemplate(String[] literals, String[] slots, String[] defaults) {
+        this.literals = literals;
+        this.slots = slots;
+        this.defaults = defaults;
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile {@code raw}. Entries in {@code inline} are substituted right away when they are constant for the
+     * locale (like {@code prefix}) but can still be overridden at render time.
+     */
+    public static MessageTemplate compile(String raw, Map<String, String> inline) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            int close = c == '{' ? raw.indexOf('}', i + 1) : -1;
+            if (close > i + 1 && isName(raw, i + 1, close)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                String name = raw.substring(i + 1, close);
+                slots.add(name);
+                defaults.add(inline.get(name));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new),
+                defaults.toArray(String[]::new));
+    }
+
+    /** Fill the slots from {@code values}; missing ones fall back to their default or stay as {@code {name}}. */
+    public String render(Map<String, String> values) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        String[] filled = new String[slots.length];
+        int length = literalLength;
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            if (value == null) value = defaults[i];
+            if (value == null) value = "{" + slots[i] + "}";
+            filled[i] = value;
+            length += value.length();
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(filled[i]);
+        }
+        return out.append(literals[slots.length]).toString();
+    }
+
+    /** Rendered and parsed; the parse is cached when nothing can vary between calls. */
+    public Component toComponent(Map<String, String> values) {
+        if (!isConstant(values)) {
+            return Text.toComponent(render(values));
+        }
+        Component cached = component;
+        if (cached == null) {
+            cached = Text.toComponent(render(values));
+            component = cached;
+        }
+        return cached;
+    }
+
+    /** True if every slot resolves to its default, i.e. the output does not depend on the call. */
+    private boolean isConstant(Map<String, String> values) {
+        for (int i = 0; i < slots.length; i++) {
+            if (defaults[i] == null || values.containsKey(slots[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isName(String raw, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = raw.charAt(i);
+            if (!(c == '_' || c == '-' || c == '.' || Character.isLetterOrDigit(c))) return false;
+        }
+        return true;
+    }
+}
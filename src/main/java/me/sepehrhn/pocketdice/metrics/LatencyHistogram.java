@@ -0,0 +1,89 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with logarithmic buckets.
+ * <p>
+ * Every power of two is split into {@link #SUB_BUCKETS} linear buckets, so a reported percentile is at most 12.5%
+ * above the true value, over the whole range from 1 ns to centuries in under 500 counters. Recording is one
+ * {@code getAndIncrement} plus two striped adders; reading sums the buckets and may miss samples recorded meanwhile.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.getAndIncrement(bucketOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    public Summary summary() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        long largest = max.get();
+        if (count == 0) {
+            return new Summary(0L, 0L, 0L, 0L, 0L);
+        }
+        return new Summary(count, sum.sum() / count, percentile(snapshot, count, 0.50D, largest),
+                percentile(snapshot, count, 0.99D, largest), largest);
+    }
+
+    /** Upper bound of the bucket holding the {@code quantile} sample, capped at the largest value seen. */
+    private static long percentile(long[] snapshot, long count, double quantile, long largest) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), largest);
+            }
+        }
+        return largest;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower + width - 1;
+    }
+
+    /** Durations in nanoseconds; percentiles are bucket upper bounds. */
+    public record Summary(long count, long mean, long p50, long p99, long max) {
+    }
+}
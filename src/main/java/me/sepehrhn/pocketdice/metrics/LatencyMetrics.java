@@ -0,0 +1,66 @@
+package me.sepehrhn.pocketdice.metrics;
+
+/**
+ * One {@link LatencyHistogram} per {@link LatencyStage}.
+ * <p>
+ * Stages are timed with a start/lap pair that chains, so consecutive stages share their {@code System.nanoTime}
+ * calls:
+ * <pre>
+ *   long t = metrics.start();
+ *   parse();
+ *   t = metrics.lap(LatencyStage.ROLL_PARSE, t);
+ *   evaluate();
+ *   metrics.lap(LatencyStage.ROLL_EVALUATE, t);
+ * </pre>
+ * While disabled, {@link #start} returns 0 without reading the clock and {@link #lap} ignores a 0 start, so the only
+ * cost left is one volatile read per timed section.
+ */
+public final class LatencyMetrics {
+
+    private static final LatencyStage[] STAGES = LatencyStage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private volatile boolean enabled;
+
+    public LatencyMetrics(boolean enabled) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** The current time to pass to {@link #lap}, or 0 when disabled. */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the time since {@code start} under {@code stage}.
+     *
+     * @return the current time, to start the next stage with; 0 if {@code start} was 0
+     */
+    public long lap(LatencyStage stage, long start) {
+        if (start == 0L) return 0L;
+        long now = System.nanoTime();
+        histograms[stage.ordinal()].record(now - start);
+        return now;
+    }
+
+    public LatencyHistogram.Summary summary(LatencyStage stage) {
+        return histograms[stage.ordinal()].summary();
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import java.util.Locale;
+
+/** Timed stages; {@link #key()} is what {@code /pocketdice metrics} shows. */
+public enum LatencyStage {
+    /** Notation cache lookup, including compiling a new notation. */
+    ROLL_PARSE,
+    /** Evaluating the expression. */
+    ROLL_EVALUATE,
+    /** Recording the roll in history, statistics and the audit queue. */
+    ROLL_RECORD,
+    /** Finding recipients within the radius. */
+    ROLL_SCAN,
+    /** Filling the result template for one locale. */
+    ROLL_FORMAT,
+    /** Parsing the filled template with MiniMessage for one locale. */
+    ROLL_RENDER,
+    /** Sending the message and sound, or handing them to other regions. */
+    ROLL_SEND,
+    LOCALE_LOAD,
+    LOCALE_APPLY,
+    CONFIG_UPDATE,
+    UPDATE_CHECK;
+
+    private final String key = name().toLowerCase(Locale.ROOT).replace('_', '.');
+
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,79 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import me.sepehrhn.pocketdice.util.DiceParser.ParseError;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on event counters for {@link PrometheusExporter}. Game threads only increment {@link LongAdder}s; an
+ * exporter reads the sums from its own thread.
+ */
+public final class PluginCounters {
+
+    private static final ParseError[] ERRORS = ParseError.values();
+
+    private final LongAdder rolls = new LongAdder();
+    private final LongAdder[] parseErrors = new LongAdder[ERRORS.length];
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final LongAdder reloadNanos = new LongAdder();
+    private volatile long lastReloadNanos;
+
+    public PluginCounters() {
+        for (int i = 0; i < parseErrors.length; i++) {
+            parseErrors[i] = new LongAdder();
+        }
+    }
+
+    public void roll() {
+        rolls.increment();
+    }
+
+    public void parseError(ParseError error) {
+        parseErrors[error.ordinal()].increment();
+    }
+
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    /** A {@code /pocketdice reload} that took {@code nanos} from the command to the new config being live. */
+    public void reload(long nanos) {
+        reloads.increment();
+        reloadNanos.add(nanos);
+        lastReloadNanos = nanos;
+    }
+
+    public void reloadFailed() {
+        reloadFailures.increment();
+    }
+
+    public long rolls() {
+        return rolls.sum();
+    }
+
+    public long parseErrors(ParseError error) {
+        return parseErrors[error.ordinal()].sum();
+    }
+
+    public long rateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    public long reloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    public long reloadNanos() {
+        return reloadNanos.sum();
+    }
+
+    public long lastReloadNanos() {
+        return lastReloadNanos;
+    }
+}
@@ -0,0 +1,152 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import me.sepehrhn.pocketdice.update.UpdateCheckStatus;
+import me.sepehrhn.pocketdice.util.DiceParser.ParseError;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves {@link PluginCounters} on {@code http://127.0.0.1:<port>/metrics} in the Prometheus text format.
+ * <p>
+ * Uses the JDK's built-in HTTP server on one daemon thread, bound to the loopback address only. A scrape renders the
+ * page from counter sums and a volatile status read; it never schedules anything on, or waits for, a game thread.
+ */
+public final class PrometheusExporter implements AutoCloseable {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final ParseError[] ERRORS = ParseError.values();
+    private static final UpdateCheckStatus[] STATUSES = UpdateCheckStatus.values();
+
+    private final PluginCounters counters;
+    private final Supplier<UpdateCheckStatus> updateStatus;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PrometheusExporter(PluginCounters counters, Supplier<UpdateCheckStatus> updateStatus, HttpServer server,
+                               ExecutorService executor) {
+        this.counters = counters;
+        this.updateStatus = updateStatus;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Bind to {@code 127.0.0.1:port} and start serving.
+     *
+     * @param port TCP port, or 0 for any free one (see {@link #port()})
+     * @throws IOException if the port cannot be bound
+     */
+    public static PrometheusExporter start(int port, PluginCounters counters, Supplier<UpdateCheckStatus> updateStatus)
+            throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "PocketDice-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        PrometheusExporter exporter = new PrometheusExporter(counters, updateStatus, server, executor);
+        server.createContext("/metrics", exporter::handle);
+        server.setExecutor(executor);
+        server.start();
+        return exporter;
+    }
+
+    /** The bound port. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals("/metrics")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /** The exposition text for the current counter values. */
+    String render() {
+        StringBuilder out = new StringBuilder(2048);
+        header(out, "pocketdice_rolls_total", "counter", "Rolls made with /roll.");
+        sample(out, "pocketdice_rolls_total", null, null, counters.rolls());
+
+        header(out, "pocketdice_parse_errors_total", "counter", "Rejected dice notations by error.");
+        for (ParseError error : ERRORS) {
+            sample(out, "pocketdice_parse_errors_total", "error", error.name().toLowerCase(Locale.ROOT),
+                    counters.parseErrors(error));
+        }
+
+        header(out, "pocketdice_rate_limited_total", "counter", "Rolls refused by the rate limit.");
+        sample(out, "pocketdice_rate_limited_total", null, null, counters.rateLimitedCount());
+
+        header(out, "pocketdice_reload_duration_seconds", "summary",
+                "Time from /pocketdice reload to the new config being live.");
+        sample(out, "pocketdice_reload_duration_seconds_count", null, null, counters.reloads());
+        seconds(out, "pocketdice_reload_duration_seconds_sum", counters.reloadNanos());
+        header(out, "pocketdice_reload_last_duration_seconds", "gauge", "Duration of the most recent reload.");
+        seconds(out, "pocketdice_reload_last_duration_seconds", counters.lastReloadNanos());
+        header(out, "pocketdice_reload_failures_total", "counter",
+                "Reloads that failed to read config.yml or the locales.");
+        sample(out, "pocketdice_reload_failures_total", null, null, counters.reloadFailures());
+
+        UpdateCheckStatus current = updateStatus.get();
+        header(out, "pocketdice_update_status", "gauge",
+                "Result of the last update check; 1 for the current status.");
+        for (UpdateCheckStatus status : STATUSES) {
+            sample(out, "pocketdice_update_status", "status", status.name().toLowerCase(Locale.ROOT),
+                    status == current ? 1 : 0);
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String value, long sample) {
+        out.append(name);
+        if (label != null) {
+            // Label values here are enum names, which never need escaping
+            out.append('{').append(label).append("=\"").append(value).append("\"}");
+        }
+        out.append(' ').append(sample).append('\n');
+    }
+
+    private static void seconds(StringBuilder out, String name, long nanos) {
+        out.append(name).append(' ').append(String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000D)).append('\n');
+    }
+}
@@ -0,0 +1,50 @@
+package me.sepehrhn.pocketdice.random;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of dice randomness. Implementations hand every calling thread (including Folia region threads)
+ * a generator it may use without further synchronization.
+ */
+public interface RandomProvider {
+
+    /** Algorithm name accepted by {@link #create} that maps to {@link java.util.concurrent.ThreadLocalRandom}. */
+    String THREAD_LOCAL_RANDOM = "ThreadLocalRandom";
+
+    /** Algorithm used for seeded replay when the configured one cannot be seeded. */
+    String DEFAULT_SEEDED_ALGORITHM = "L64X128MixRandom";
+
+    /** Generator for the calling thread. Do not share it with other threads. */
+    RandomGenerator current();
+
+    /**
+     * Roll {@code expression} into {@code out} with the calling thread's generator. Replay mode overrides this
+     * to draw every die of the roll (batched words, rerolls and sampled sums included) under one lock.
+     */
+    default RollResult roll(DiceExpression expression, RollResult out) {
+        return expression.evaluate(current(), out);
+    }
+
+    /** Human-readable description for logs, e.g. {@code L64X128MixRandom (per-thread split streams)}. */
+    String describe();
+
+    /**
+     * Build a provider for a {@code java.util.random} algorithm name (or {@link #THREAD_LOCAL_RANDOM}).
+     *
+     * @param seed {@code 0} for per-thread streams from fresh entropy; anything else selects seeded replay mode
+     * @throws IllegalArgumentException if the algorithm is unknown
+     */
+    static RandomProvider create(String algorithm, long seed) {
+        if (seed != 0) {
+            String seeded = THREAD_LOCAL_RANDOM.equalsIgnoreCase(algorithm) ? DEFAULT_SEEDED_ALGORITHM : algorithm;
+            return new SeededRandomProvider(seeded, seed);
+        }
+        if (THREAD_LOCAL_RANDOM.equalsIgnoreCase(algorithm)) {
+            return new ThreadLocalRandomProvider();
+        }
+        return new SplitStreamProvider(algorithm);
+    }
+}
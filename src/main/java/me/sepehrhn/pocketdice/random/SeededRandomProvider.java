@@ -0,0 +1,86 @@
+package me.sepehrhn.pocketdice.random;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Replay mode: a single generator created from a fixed seed and shared by every thread, so the same seed and
+ * the same sequence of rolls reproduce the same results. Whole rolls are serialized, so Folia region threads
+ * cannot interleave draws within one roll; this costs throughput and is meant for audits and debugging, not as
+ * the default.
+ */
+final class SeededRandomProvider implements RandomProvider {
+
+    private final String algorithm;
+    private final long seed;
+    private final RandomGenerator generator;
+    private final Synchronized shared;
+
+    SeededRandomProvider(String algorithm, long seed) {
+        RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.of(algorithm);
+        this.algorithm = factory.name();
+        this.seed = seed;
+        this.generator = factory.create(seed);
+        this.shared = new Synchronized(generator);
+    }
+
+    @Override
+    public RandomGenerator current() {
+        return shared;
+    }
+
+    @Override
+    public RollResult roll(DiceExpression expression, RollResult out) {
+        // Same monitor as the single draws of current(), so a roll is one contiguous run of the stream
+        synchronized (shared) {
+            return expression.evaluate(generator, out);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return algorithm + " (seeded replay, seed=" + seed + ")";
+    }
+
+    /** Serializes single draws; the default methods of RandomGenerator all funnel into these. */
+    private static final class Synchronized implements RandomGenerator {
+        private final RandomGenerator delegate;
+
+        Synchronized(RandomGenerator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized long nextLong() {
+            return delegate.nextLong();
+        }
+
+        @Override
+        public synchronized int nextInt() {
+            return delegate.nextInt();
+        }
+
+        @Override
+        public synchronized int nextInt(int bound) {
+            return delegate.nextInt(bound);
+        }
+
+        @Override
+        public synchronized int nextInt(int origin, int bound) {
+            return delegate.nextInt(origin, bound);
+        }
+
+        @Override
+        public synchronized double nextDouble() {
+            return delegate.nextDouble();
+        }
+
+        @Override
+        public synchronized double nextGaussian() {
+            return delegate.nextGaussian();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package me.sepehrhn.pocketdice.random;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * One independent stream per thread. Splittable algorithms (L64X128MixRandom, SplittableRandom, ...) split
+ * each stream off a shared root so streams are statistically independent; other algorithms seed each
+ * thread's generator from fresh entropy.
+ */
+final class SplitStreamProvider implements RandomProvider {
+
+    private final String algorithm;
+    private final RandomGeneratorFactory<RandomGenerator> factory;
+    private final RandomGenerator.SplittableGenerator root;
+    private final ThreadLocal<RandomGenerator> streams;
+
+    SplitStreamProvider(String algorithm) {
+        this.factory = RandomGeneratorFactory.of(algorithm);
+        this.algorithm = factory.name();
+        this.root = factory.isSplittable() ? (RandomGenerator.SplittableGenerator) factory.create() : null;
+        this.streams = ThreadLocal.withInitial(this::newStream);
+    }
+
+    private RandomGenerator newStream() {
+        if (root == null) {
+            return factory.create();
+        }
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    @Override
+    public RandomGenerator current() {
+        return streams.get();
+    }
+
+    @Override
+    public String describe() {
+        return algorithm + (root != null ? " (per-thread split streams)" : " (per-thread streams)");
+    }
+}
@@ -0,0 +1,18 @@
+package me.sepehrhn.pocketdice.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/** The JDK's per-thread generator; the historic PocketDice default. */
+final class ThreadLocalRandomProvider implements RandomProvider {
+
+    @Override
+    public RandomGenerator current() {
+        return ThreadLocalRandom.current();
+    }
+
+    @Override
+    public String describe() {
+        return THREAD_LOCAL_RANDOM;
+    }
+}
@@ -0,0 +1,68 @@
+package me.sepehrhn.pocketdice.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/** Folia: region, entity, global region and async schedulers. The async scheduler counts in milliseconds. */
+final class FoliaTaskScheduler implements TaskScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+
+    FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    @Override
+    public void runAtEntity(Entity entity, Runnable task) {
+        // Retired callback is null: a player who left has nobody to deliver to
+        entity.getScheduler().run(plugin, scheduled -> task.run(), null);
+    }
+
+    @Override
+    public void runAtLocation(Location location, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, location, task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+
+    @Override
+    public Task runAsyncLater(Runnable task, long delayTicks) {
+        if (delayTicks <= 0) {
+            return Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run())::cancel;
+        }
+        return Bukkit.getAsyncScheduler().runDelayed(plugin, scheduled -> task.run(),
+                delayTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS)::cancel;
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getAsyncScheduler().runAtFixedRate(plugin, scheduled -> task.run(),
+                Math.max(1L, delayTicks) * MILLIS_PER_TICK, Math.max(1L, periodTicks) * MILLIS_PER_TICK,
+                TimeUnit.MILLISECONDS)::cancel;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return Bukkit.isOwnedByCurrentRegion(entity);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+        Bukkit.getAsyncScheduler().cancelTasks(plugin);
+    }
+}
@@ -0,0 +1,63 @@
+package me.sepehrhn.pocketdice.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Thread-ownership aware task scheduling.
+ * <p>
+ * On Folia tasks go to the region, entity, global region or async schedulers; on Paper everything that must
+ * touch the world runs on the main thread through the Bukkit scheduler. Delays and periods are in ticks.
+ */
+public interface TaskScheduler {
+
+    static TaskScheduler create(Plugin plugin) {
+        return isFolia() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    /** Run on the global region (Folia) or main thread (Paper); for server-wide state. */
+    void runGlobal(Runnable task);
+
+    /** Run on the thread that owns {@code entity}; dropped if the entity is removed first. */
+    void runAtEntity(Entity entity, Runnable task);
+
+    /** Run on the thread that owns the region containing {@code location}. */
+    void runAtLocation(Location location, Runnable task);
+
+    /** Run on the sender's own thread: the entity's region for players, the global region otherwise. */
+    default void runFor(CommandSender sender, Runnable task) {
+        if (sender instanceof Entity entity) {
+            runAtEntity(entity, task);
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    void runAsync(Runnable task);
+
+    Task runAsyncLater(Runnable task, long delayTicks);
+
+    Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /** Whether the calling thread may touch {@code entity} directly. */
+    boolean isOwnedByCurrentThread(Entity entity);
+
+    /** Cancel every task this plugin scheduled. */
+    void cancelAll();
+
+    /** Handle for a delayed or repeating task. */
+    interface Task {
+        void cancel();
+    }
+}
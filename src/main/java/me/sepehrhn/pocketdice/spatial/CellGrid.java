@@ -0,0 +1,141 @@
+package me.sepehrhn.pocketdice.spatial;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Positions of tracked objects bucketed into square columns of {@link #CELL_SIZE} blocks (one chunk).
+ * <p>
+ * Moving within a cell only overwrites the stored coordinates; crossing a border moves the entry between two
+ * cell sets. A radius query visits only the cells overlapping the query square and compares stored coordinates,
+ * so it never touches objects elsewhere in the world. Safe for concurrent updates and queries (Folia regions).
+ */
+public final class CellGrid<T> {
+
+    public static final int CELL_SIZE = 16;
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<T, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Entry<T>>> cells = new ConcurrentHashMap<>();
+
+    /** Insert {@code value} or move it to the given position. */
+    public void update(T value, double x, double y, double z) {
+        long cell = cellKey(x, z);
+        Entry<T> entry = entries.get(value);
+        if (entry == null) {
+            Entry<T> created = new Entry<>(value, x, y, z, cell);
+            entry = entries.putIfAbsent(value, created);
+            if (entry == null) {
+                addToCell(cell, created);
+                return;
+            }
+        }
+        entry.x = x;
+        entry.y = y;
+        entry.z = z;
+        if (entry.cell != cell) {
+            removeFromCell(entry.cell, entry);
+            entry.cell = cell;
+            addToCell(cell, entry);
+        }
+    }
+
+    public void remove(T value) {
+        Entry<T> entry = entries.remove(value);
+        if (entry != null) {
+            removeFromCell(entry.cell, entry);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /** Call {@code action} for every value within {@code radius} blocks (3D distance) of the given point. */
+    public void forEachWithin(double x, double y, double z, double radius, Consumer<? super T> action) {
+        double r2 = radius * radius;
+        int minX = cellCoord(x - radius);
+        int maxX = cellCoord(x + radius);
+        int minZ = cellCoord(z - radius);
+        int maxZ = cellCoord(z + radius);
+        long span = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+
+        // Huge radius on a sparse world: scanning the occupied cells is cheaper than walking the square
+        if (span > cells.size()) {
+            for (Set<Entry<T>> cell : cells.values()) {
+                visit(cell, x, y, z, r2, action);
+            }
+            return;
+        }
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                Set<Entry<T>> cell = cells.get(pack(cx, cz));
+                if (cell != null) {
+                    visit(cell, x, y, z, r2, action);
+                }
+            }
+        }
+    }
+
+    private static <T> void visit(Set<Entry<T>> cell, double x, double y, double z, double r2,
+                                  Consumer<? super T> action) {
+        for (Entry<T> entry : cell) {
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+            double dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz <= r2) {
+                action.accept(entry.value);
+            }
+        }
+    }
+
+    // Both under the per-key lock of compute, so an emptied cell is never dropped while another thread adds to it
+    private void addToCell(long cell, Entry<T> entry) {
+        cells.compute(cell, (key, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(entry);
+            return set;
+        });
+    }
+
+    private void removeFromCell(long cell, Entry<T> entry) {
+        cells.computeIfPresent(cell, (key, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static int cellCoord(double coordinate) {
+        return (int) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(double x, double z) {
+        return pack(cellCoord(x), cellCoord(z));
+    }
+
+    private static long pack(int cx, int cz) {
+        return (long) cx << 32 | (cz & 0xFFFFFFFFL);
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        volatile double x;
+        volatile double y;
+        volatile double z;
+        volatile long cell;
+
+        Entry(T value, double x, double y, double z, long cell) {
+            this.value = value;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.cell = cell;
+        }
+    }
+}
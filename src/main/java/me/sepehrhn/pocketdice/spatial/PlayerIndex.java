@@ -0,0 +1,114 @@
+package me.sepehrhn.pocketdice.spatial;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** Per-world {@link CellGrid} of online players, kept current from movement and connection events. */
+public class PlayerIndex implements Listener {
+
+    private final Map<UUID, CellGrid<Player>> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> worldOf = new ConcurrentHashMap<>();
+
+    /** Call {@code action} for every indexed player in {@code world} within {@code radius} blocks of the point. */
+    public void forEachNear(World world, double x, double y, double z, double radius, Consumer<? super Player> action) {
+        CellGrid<Player> grid = worlds.get(world.getUID());
+        if (grid != null) {
+            grid.forEachWithin(x, y, z, radius, action);
+        }
+    }
+
+    /** Index (or re-index) a player at their current location. */
+    public void track(Player player) {
+        track(player, player.getLocation());
+    }
+
+    public void untrack(Player player) {
+        UUID world = worldOf.remove(player.getUniqueId());
+        if (world != null) {
+            CellGrid<Player> grid = worlds.get(world);
+            if (grid != null) {
+                grid.remove(player);
+            }
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        worldOf.clear();
+    }
+
+    private void track(Player player, Location location) {
+        World world = location.getWorld();
+        if (world == null) return;
+        UUID worldId = world.getUID();
+        UUID previous = worldOf.put(player.getUniqueId(), worldId);
+        if (previous != null && !previous.equals(worldId)) {
+            CellGrid<Player> old = worlds.get(previous);
+            if (old != null) {
+                old.remove(player);
+            }
+        }
+        worlds.computeIfAbsent(worldId, id -> new CellGrid<>())
+                .update(player, location.getX(), location.getY(), location.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        track(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        untrack(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (!event.hasChangedPosition()) return; // head rotation only
+        track(event.getPlayer(), event.getTo());
+    }
+
+    // Teleports have their own handler list, so PlayerMoveEvent listeners do not see them
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        track(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        track(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        track(event.getPlayer());
+    }
+
+    // Riding players move with their vehicle without a PlayerMoveEvent
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        Location to = event.getTo();
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player player) {
+                track(player, to);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package me.sepehrhn.pocketdice.stats;
+
+/**
+ * Pearson's chi-square goodness-of-fit test against a fair die.
+ * <p>
+ * The p-value is the chance that fair dice would look at least this uneven, i.e. the upper tail of the chi-square
+ * distribution, computed as the regularized upper incomplete gamma function Q(df/2, x/2).
+ */
+public final class ChiSquare {
+
+    /** Below this many expected rolls per face the approximation is not trustworthy. */
+    public static final int MIN_EXPECTED_PER_FACE = 5;
+
+    private static final int MAX_ITERATIONS = 500;
+    private static final double EPSILON = 1e-14;
+    private static final double TINY = 1e-300;
+    private static final double[] LANCZOS = {
+            676.5203681218851, -1259.1392167224028, 771.32342877765313, -176.61502916214059,
+            12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+    };
+
+    private ChiSquare() {
+    }
+
+    /** The statistic for observed face counts against equal expected counts. */
+    public static double statistic(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        if (total == 0) return 0.0D;
+        double expected = (double) total / counts.length;
+        double sum = 0.0D;
+        for (long count : counts) {
+            double diff = count - expected;
+            sum += diff * diff;
+        }
+        return sum / expected;
+    }
+
+    /** Upper-tail probability of {@code statistic} with {@code degreesOfFreedom}. */
+    public static double pValue(double statistic, int degreesOfFreedom) {
+        if (degreesOfFreedom < 1) {
+            throw new IllegalArgumentException("degrees of freedom must be >= 1");
+        }
+        if (statistic <= 0.0D) return 1.0D;
+        return upperGamma(degreesOfFreedom / 2.0D, statistic / 2.0D);
+    }
+
+    /** True if every face is expected at least {@link #MIN_EXPECTED_PER_FACE} times. */
+    public static boolean hasEnoughData(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        return total >= (long) MIN_EXPECTED_PER_FACE * counts.length;
+    }
+
+    /** Regularized Q(a, x): a series below a + 1, a continued fraction (modified Lentz) above. */
+    static double upperGamma(double a, double x) {
+        double logPrefix = a * Math.log(x) - x - logGamma(a);
+        if (x < a + 1.0D) {
+            double term = 1.0D / a;
+            double sum = term;
+            for (int n = 1; n < MAX_ITERATIONS; n++) {
+                term *= x / (a + n);
+                sum += term;
+                if (Math.abs(term) < Math.abs(sum) * EPSILON) break;
+            }
+            return Math.max(0.0D, 1.0D - sum * Math.exp(logPrefix));
+        }
+        double b = x + 1.0D - a;
+        double c = 1.0D / TINY;
+        double d = 1.0D / b;
+        double h = d;
+        for (int n = 1; n < MAX_ITERATIONS; n++) {
+            double an = -n * (n - a);
+            b += 2.0D;
+            d = an * d + b;
+            if (Math.abs(d) < TINY) d = TINY;
+            c = b + an / c;
+            if (Math.abs(c) < TINY) c = TINY;
+            d = 1.0D / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1.0D) < EPSILON) break;
+        }
+        return Math.min(1.0D, Math.exp(logPrefix) * h);
+    }
+
+    /** Lanczos approximation (g = 7), accurate to about 15 digits for positive arguments. */
+    static double logGamma(double x) {
+        if (x < 0.5D) {
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1.0D - x);
+        }
+        x -= 1.0D;
+        double sum = 0.99999999999980993D;
+        for (int i = 0; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (x + i + 1);
+        }
+        double t = x + LANCZOS.length - 0.5D;
+        return 0.5D * Math.log(2 * Math.PI) + (x + 0.5D) * Math.log(t) - t + Math.log(sum);
+    }
+}
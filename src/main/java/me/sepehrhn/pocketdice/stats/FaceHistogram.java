@@ -0,0 +1,59 @@
+package me.sepehrhn.pocketdice.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how often each face of one die size came up, striped so that threads rolling at the same time (Folia
+ * regions, async commands) mostly increment different cache lines.
+ * <p>
+ * All stripes live in one pre-sized {@link AtomicLongArray}; each stripe is a row of {@code faces} counters padded
+ * to a multiple of 64 bytes plus one spare line. A thread always uses the same stripe, chosen from its id.
+ * {@link #counts()} sums the stripes and is only meant for the periodic snapshot.
+ */
+final class FaceHistogram {
+
+    private static final int LONGS_PER_LINE = 8;
+
+    private final int faces;
+    private final int stride;
+    private final int mask;
+    private final AtomicLongArray counts;
+
+    FaceHistogram(int faces, int stripes) {
+        if (faces < 2) {
+            throw new IllegalArgumentException("faces must be >= 2");
+        }
+        int rows = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.faces = faces;
+        this.stride = ((faces + LONGS_PER_LINE - 1) / LONGS_PER_LINE + 1) * LONGS_PER_LINE;
+        this.mask = rows - 1;
+        this.counts = new AtomicLongArray(rows * stride);
+    }
+
+    int faces() {
+        return faces;
+    }
+
+    /** Count one die showing {@code value}; values outside 1..faces are ignored. */
+    void add(int value) {
+        if (value < 1 || value > faces) return;
+        counts.getAndIncrement(stripe() * stride + value - 1);
+    }
+
+    /** Per-face totals, index 0 for face 1. */
+    long[] counts() {
+        long[] out = new long[faces];
+        for (int row = 0; row <= mask; row++) {
+            int base = row * stride;
+            for (int face = 0; face < faces; face++) {
+                out[face] += counts.get(base + face);
+            }
+        }
+        return out;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
@@ -0,0 +1,189 @@
+package me.sepehrhn.pocketdice.stats;
+
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-wide roll counters since startup: rolls per notation and per player, and per-face counts for a few die sizes.
+ * <p>
+ * {@link #record} only touches {@link LongAdder}s and striped {@link FaceHistogram}s, so rolls on different region
+ * threads never wait on each other. Nothing reads the counters on the roll path: a timer folds them into an immutable
+ * {@link Snapshot} every few seconds, and {@code /pocketdice stats} shows the latest one. Notation and player maps are
+ * capped; rolls beyond the cap still count towards the totals.
+ */
+public final class RollStats {
+
+    static final int MAX_NOTATIONS = 512;
+    static final int MAX_PLAYERS = 10_000;
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final long started;
+    private final LongAdder rolls = new LongAdder();
+    private final LongAdder dice = new LongAdder();
+    private final Map<String, LongAdder> notations = new ConcurrentHashMap<>();
+    private final Map<UUID, LongAdder> players = new ConcurrentHashMap<>();
+    private final int stripes = Runtime.getRuntime().availableProcessors();
+    private volatile FaceHistogram[] histograms;
+    private volatile int top;
+    private volatile Snapshot snapshot;
+    private TaskScheduler.Task snapshotTask;
+
+    // Snapshot thread only: (time, rolls) pairs covering the last minute
+    private final Deque<long[]> recent = new ArrayDeque<>();
+
+    /**
+     * @param faces die sizes to keep per-face counts for, e.g. 20 and 100
+     * @param top   notations and players listed in a snapshot
+     */
+    public RollStats(int[] faces, int top) {
+        this.started = System.currentTimeMillis();
+        this.histograms = histogramsFor(faces, new FaceHistogram[0]);
+        this.top = top;
+        this.snapshot = takeSnapshot(started);
+    }
+
+    /** Change the tracked die sizes and list length; sizes tracked before and after keep their counts. */
+    public synchronized void configure(int[] faces, int updatedTop) {
+        histograms = histogramsFor(faces, histograms);
+        top = updatedTop;
+    }
+
+    /** Count a roll; {@code result} is read immediately and may be reused afterwards. */
+    public void record(UUID player, DiceExpression expression, RollResult result) {
+        rolls.increment();
+        dice.add(result.size());
+        counter(notations, expression.notation(), MAX_NOTATIONS).increment();
+        counter(players, player, MAX_PLAYERS).increment();
+
+        int faces = expression.uniformFaces();
+        if (faces == 0) return;
+        for (FaceHistogram histogram : histograms) {
+            if (histogram.faces() != faces) continue;
+            for (int i = 0, n = result.size(); i < n; i++) {
+                histogram.add(result.value(i));
+            }
+            return;
+        }
+    }
+
+    /** The latest snapshot; at most one snapshot period old. */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public synchronized void start(TaskScheduler scheduler, long periodTicks) {
+        stop();
+        snapshotTask = scheduler.runAsyncTimer(() -> snapshot = takeSnapshot(System.currentTimeMillis()),
+                periodTicks, periodTicks);
+    }
+
+    public synchronized void stop() {
+        if (snapshotTask != null) {
+            snapshotTask.cancel();
+            snapshotTask = null;
+        }
+    }
+
+    /** Fold the counters into a new snapshot taken at {@code now}. */
+    synchronized Snapshot takeSnapshot(long now) {
+        long totalRolls = rolls.sum();
+        recent.addLast(new long[]{now, totalRolls});
+        while (recent.size() > 2 && recent.peekFirst()[0] < now - MINUTE_MILLIS) {
+            recent.removeFirst();
+        }
+        long[] oldest = recent.peekFirst();
+        long window = now - oldest[0];
+        double perMinute = window > 0 ? (totalRolls - oldest[1]) * (double) MINUTE_MILLIS / window : 0.0D;
+
+        List<Histogram> faces = new ArrayList<>(histograms.length);
+        for (FaceHistogram histogram : histograms) {
+            faces.add(new Histogram(histogram.faces(), histogram.counts()));
+        }
+        int n = top;
+        return new Snapshot(now, started, totalRolls, dice.sum(), perMinute, top(notations, n), top(players, n),
+                List.copyOf(faces));
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> map, K key, int cap) {
+        LongAdder counter = map.get(key);
+        if (counter != null) return counter;
+        // Past the cap new keys get a throwaway adder: cheaper than a branch for "not counted" at every caller
+        return map.size() >= cap ? new LongAdder() : map.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> List<Count<K>> top(Map<K, LongAdder> map, int limit) {
+        if (limit <= 0) return List.of();
+        PriorityQueue<Count<K>> best = new PriorityQueue<>(limit + 1, Comparator.comparingLong(Count::count));
+        map.forEach((key, adder) -> {
+            long count = adder.sum();
+            if (best.size() < limit) {
+                best.add(new Count<>(key, count));
+            } else if (count > best.peek().count()) {
+                best.poll();
+                best.add(new Count<>(key, count));
+            }
+        });
+        List<Count<K>> out = new ArrayList<>(best);
+        out.sort(Comparator.comparingLong(Count<K>::count).reversed());
+        return List.copyOf(out);
+    }
+
+    private FaceHistogram[] histogramsFor(int[] faces, FaceHistogram[] existing) {
+        List<FaceHistogram> out = new ArrayList<>(faces.length);
+        for (int size : faces) {
+            if (size < 2 || out.stream().anyMatch(h -> h.faces() == size)) continue;
+            FaceHistogram kept = null;
+            for (FaceHistogram histogram : existing) {
+                if (histogram.faces() == size) kept = histogram;
+            }
+            out.add(kept != null ? kept : new FaceHistogram(size, stripes));
+        }
+        return out.toArray(new FaceHistogram[0]);
+    }
+
+    public record Count<K>(K key, long count) {
+    }
+
+    /** Per-face counts of one die size at snapshot time; index 0 is face 1. */
+    public record Histogram(int faces, long[] counts) {
+
+        public long total() {
+            long total = 0;
+            for (long count : counts) total += count;
+            return total;
+        }
+
+        public double chiSquare() {
+            return ChiSquare.statistic(counts);
+        }
+
+        /** Chance that fair dice would look at least this uneven. */
+        public double pValue() {
+            return ChiSquare.pValue(chiSquare(), faces - 1);
+        }
+
+        public boolean hasEnoughData() {
+            return ChiSquare.hasEnoughData(counts);
+        }
+    }
+
+    /**
+     * @param rollsPerMinute rolls over roughly the last minute, scaled to one minute
+     */
+    public record Snapshot(long time, long since, long rolls, long dice, double rollsPerMinute,
+                           List<Count<String>> topNotations, List<Count<UUID>> topPlayers, List<Histogram> histograms) {
+    }
+}
@@ -5,10 +5,11 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import me.sepehrhn.pocketdice.PocketDice;
+import me.sepehrhn.pocketdice.metrics.LatencyMetrics;
+import me.sepehrhn.pocketdice.metrics.LatencyStage;
+import me.sepehrhn.pocketdice.scheduler.TaskScheduler;
 import me.sepehrhn.pocketdice.util.Text;
-import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -39,7 +40,7 @@ public class UpdateChecker {
     private String adminNotifyPermission;
 
     private volatile UpdateCheckResult lastResult;
-    private BukkitTask intervalTask;
+    private TaskScheduler.Task intervalTask;
 
     public UpdateChecker(PocketDice plugin) {
         this.plugin = plugin;
@@ -89,7 +90,7 @@ public class UpdateChecker {
             checkForUpdatesAsync(MIN_DELAY_TICKS);
         }
         if (checkIntervalTicks > 0) {
-            intervalTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin,
+            intervalTask = plugin.getTaskScheduler().runAsyncTimer(
                     this::runCheckSilently, MIN_DELAY_TICKS, checkIntervalTicks);
         }
     }
@@ -108,15 +109,19 @@ public class UpdateChecker {
     }
 
     private void checkForUpdatesAsync(long delayTicks) {
-        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, this::runCheckSilently, Math.max(0L, delayTicks));
+        plugin.getTaskScheduler().runAsyncLater(this::runCheckSilently, Math.max(0L, delayTicks));
     }
 
     private void runCheckSilently() {
+        LatencyMetrics metrics = plugin.getLatencyMetrics();
+        long start = metrics.start();
         try {
             UpdateCheckResult result = performCheck();
+            metrics.lap(LatencyStage.UPDATE_CHECK, start);
             lastResult = result;
             logResult(result);
         } catch (Exception ex) {
+            metrics.lap(LatencyStage.UPDATE_CHECK, start);
             UpdateCheckResult result = new UpdateCheckResult(
                     UpdateCheckStatus.FAILED,
                     plugin.getDescription().getVersion(),
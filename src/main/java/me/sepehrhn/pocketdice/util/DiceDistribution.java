@@ -0,0 +1,267 @@
+package me.sepehrhn.pocketdice.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Exact probability distribution of the total of N fair M-sided dice.
+ * <p>
+ * Small pools are built by repeated convolution with a sliding window; larger ones raise the single-die
+ * spectrum to the N-th power with an FFT, which costs O(R log R) for R possible totals regardless of N.
+ * Distributions are cached per (dice, faces) and the cache is bounded by the total number of table cells.
+ */
+public final class DiceDistribution {
+
+    /** Largest number of distinct totals supported; keeps a single table at a few megabytes. */
+    public static final int MAX_RANGE = 1 << 20;
+    /** Above this much sliding-window work (dice x totals) the FFT is used instead. */
+    static final long DIRECT_WORK_LIMIT = 2_000_000L;
+    private static final long CACHE_CELLS = 1L << 21;
+
+    private static final LinkedHashMap<Long, DiceDistribution> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedCells;
+
+    private final int dice;
+    private final int faces;
+    private final double[] pmf;
+    private final double[] cdf;
+    /** upper[i] = P(total >= min + i), summed from the top so tiny tails keep their precision. */
+    private final double[] upper;
+
+    private DiceDistribution(int dice, int faces, double[] pmf) {
+        this.dice = dice;
+        this.faces = faces;
+        this.pmf = pmf;
+        this.cdf = new double[pmf.length];
+        this.upper = new double[pmf.length];
+        double running = 0;
+        for (int i = 0; i < pmf.length; i++) {
+            running += pmf[i];
+            cdf[i] = running;
+        }
+        cdf[pmf.length - 1] = 1.0;
+        running = 0;
+        for (int i = pmf.length - 1; i >= 0; i--) {
+            running += pmf[i];
+            upper[i] = running;
+        }
+        upper[0] = 1.0;
+    }
+
+    /** Whether {@link #of} can build a table for this pool. */
+    public static boolean isSupported(int dice, int faces) {
+        return dice >= 1 && faces >= 2 && range(dice, faces) <= MAX_RANGE;
+    }
+
+    /** The cached distribution, or {@code null} if it has not been computed yet. */
+    public static DiceDistribution cached(int dice, int faces) {
+        synchronized (CACHE) {
+            return CACHE.get(key(dice, faces));
+        }
+    }
+
+    /**
+     * Return the distribution for {@code dice}d{@code faces}, computing and caching it on a miss. Large pools
+     * can take tens of milliseconds, so call this off the main thread unless {@link #cached} returned it.
+     *
+     * @throws IllegalArgumentException if the pool is not {@linkplain #isSupported supported}
+     */
+    public static DiceDistribution of(int dice, int faces) {
+        if (!isSupported(dice, faces)) {
+            throw new IllegalArgumentException("Unsupported pool " + dice + "d" + faces);
+        }
+        DiceDistribution distribution = cached(dice, faces);
+        if (distribution != null) {
+            return distribution;
+        }
+        // Computed outside the lock; two threads racing on the same pool just build it twice
+        distribution = new DiceDistribution(dice, faces, computePmf(dice, faces));
+        synchronized (CACHE) {
+            DiceDistribution previous = CACHE.put(key(dice, faces), distribution);
+            cachedCells += distribution.pmf.length - (previous == null ? 0 : previous.pmf.length);
+            Iterator<DiceDistribution> eldest = CACHE.values().iterator();
+            while (cachedCells > CACHE_CELLS && CACHE.size() > 1) {
+                cachedCells -= eldest.next().pmf.length;
+                eldest.remove();
+            }
+        }
+        return distribution;
+    }
+
+    public int dice() {
+        return dice;
+    }
+
+    public int faces() {
+        return faces;
+    }
+
+    public long min() {
+        return dice;
+    }
+
+    public long max() {
+        return (long) dice * faces;
+    }
+
+    public double mean() {
+        return dice * (faces + 1.0) / 2.0;
+    }
+
+    public double variance() {
+        return dice * ((double) faces * faces - 1.0) / 12.0;
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /** P(total = value). */
+    public double probability(long value) {
+        long index = value - dice;
+        return index < 0 || index >= pmf.length ? 0.0 : pmf[(int) index];
+    }
+
+    /** P(total >= value). */
+    public double atLeast(long value) {
+        long index = value - dice;
+        if (index <= 0) return 1.0;
+        return index >= upper.length ? 0.0 : upper[(int) index];
+    }
+
+    /** P(total <= value). */
+    public double atMost(long value) {
+        long index = value - dice;
+        if (index < 0) return 0.0;
+        return index >= cdf.length ? 1.0 : cdf[(int) index];
+    }
+
+    /** Smallest total whose cumulative probability reaches {@code p}, e.g. {@code 0.5} for the median. */
+    public long percentile(double p) {
+        // Tolerance keeps symmetric medians from drifting one step because of rounding in the table
+        double target = Math.max(0.0, Math.min(1.0, p)) - 1e-12;
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] >= target) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return dice + lo;
+    }
+
+    /** Cumulative table indexed by {@code total - dice}. */
+    double[] cdf() {
+        return cdf;
+    }
+
+    private static long key(int dice, int faces) {
+        return (long) dice << 32 | faces;
+    }
+
+    private static long range(int dice, int faces) {
+        return (long) dice * (faces - 1) + 1;
+    }
+
+    private static double[] computePmf(int dice, int faces) {
+        int range = (int) range(dice, faces);
+        if ((long) range * dice <= DIRECT_WORK_LIMIT) {
+            return convolve(dice, faces, range);
+        }
+        return fftPower(dice, faces, range);
+    }
+
+    static double[] convolve(int dice, int faces, int range) {
+        double[] pmf = new double[range];
+        double[] next = new double[range];
+        double p = 1.0 / faces;
+        for (int i = 0; i < faces; i++) pmf[i] = p;
+
+        // Adding one die: next[s] = (pmf[s - faces + 1] + ... + pmf[s]) / faces, as a sliding window
+        for (int n = 2; n <= dice; n++) {
+            int length = n * (faces - 1) + 1;
+            int previous = length - faces + 1;
+            double window = 0;
+            for (int s = 0; s < length; s++) {
+                if (s < previous) window += pmf[s];
+                if (s - faces >= 0) window -= pmf[s - faces];
+                next[s] = window * p;
+            }
+            double[] swap = pmf;
+            pmf = next;
+            next = swap;
+        }
+        return pmf;
+    }
+
+    /** PMF of the sum as the inverse FFT of the single-die spectrum raised to the N-th power. */
+    static double[] fftPower(int dice, int faces, int range) {
+        int size = Integer.highestOneBit(range - 1) << 1;
+        double[] re = new double[size];
+        double[] im = new double[size];
+        double p = 1.0 / faces;
+        for (int i = 0; i < faces; i++) re[i] = p;
+
+        fft(re, im, false);
+        for (int i = 0; i < size; i++) {
+            double magnitude = Math.pow(Math.hypot(re[i], im[i]), dice);
+            double angle = Math.atan2(im[i], re[i]) * dice;
+            re[i] = magnitude * Math.cos(angle);
+            im[i] = magnitude * Math.sin(angle);
+        }
+        fft(re, im, true);
+
+        double[] pmf = new double[range];
+        double total = 0;
+        for (int i = 0; i < range; i++) {
+            // Round-off leaves ~1e-16 noise in the far tails; probabilities cannot be negative
+            pmf[i] = Math.max(0.0, re[i] / size);
+            total += pmf[i];
+        }
+        for (int i = 0; i < range; i++) pmf[i] /= total;
+        return pmf;
+    }
+
+    /** In-place iterative radix-2 FFT; {@code re.length} must be a power of two. */
+    private static void fft(double[] re, double[] im, boolean inverse) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        // Twiddles from one table rather than repeated multiplication, so error does not grow with n
+        double[] cos = new double[n >> 1];
+        double[] sin = new double[n >> 1];
+        for (int k = 0; k < cos.length; k++) {
+            double angle = 2 * Math.PI * k / n;
+            cos[k] = Math.cos(angle);
+            sin[k] = inverse ? Math.sin(angle) : -Math.sin(angle);
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >> 1;
+            int stride = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    int a = start + k;
+                    int b = a + half;
+                    double wRe = cos[k * stride];
+                    double wIm = sin[k * stride];
+                    double xRe = re[b] * wRe - im[b] * wIm;
+                    double xIm = re[b] * wIm + im[b] * wRe;
+                    re[b] = re[a] - xRe;
+                    im[b] = im[a] - xIm;
+                    re[a] += xRe;
+                    im[a] += xIm;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,717 @@
+package me.sepehrhn.pocketdice.util;
+
+import me.sepehrhn.pocketdice.random.DiceBatch;
+import me.sepehrhn.pocketdice.util.DiceParser.DiceParseException;
+import me.sepehrhn.pocketdice.util.DiceParser.ParseError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A dice expression compiled once into a postfix instruction array and evaluated by a small stack machine.
+ * <p>
+ * Grammar (letters are case-insensitive, whitespace is allowed between tokens but not inside a dice term):
+ * <pre>
+ * expr     := product (('+' | '-') product)*
+ * product  := unary (('*' | '/') unary)*
+ * unary    := ('-' | '+') unary | '(' expr ')' | NUMBER | dice
+ * dice     := [NUMBER] 'd' NUMBER modifier*          (count may be omitted if shorthand is allowed)
+ * modifier := '!' [cmp]                              explode: roll an extra die on max (or on cmp)
+ *           | 'r' ['o'] cmp                          reroll matching dice (repeatedly, or once with 'ro')
+ *           | 'k' ['h' | 'l'] NUMBER                 keep highest / lowest
+ *           | 'd' ('h' | 'l') NUMBER                 drop highest / lowest
+ *           | ('&gt;=' | '&lt;=' | '&gt;' | '&lt;' | '=') NUMBER   count successes instead of summing
+ * cmp      := ['&gt;=' | '&lt;=' | '&gt;' | '&lt;' | '='] NUMBER
+ * </pre>
+ * Plain {@code NdM} input goes through {@link DiceParser} first, so its error codes are unchanged.
+ * Arithmetic is done on longs and saturates instead of overflowing; division truncates and x/0 is 0.
+ */
+public final class DiceExpression {
+
+    public static final int MAX_LENGTH = 256;
+    public static final int MAX_TERMS = 32;
+    private static final int MAX_DEPTH = 16;
+    /** Extra dice a single die may add by exploding. */
+    private static final int MAX_EXPLOSIONS = 20;
+    /** Rerolls a single die may take with {@code r}. */
+    private static final int MAX_REROLLS = 20;
+    /** Pools at least this large are filled by {@link DiceBatch}, several dice per 64-bit draw. */
+    private static final int BATCH_MIN_DICE = 8;
+
+    private static final int OP_CONST = 0;
+    private static final int OP_DICE = 1;
+    private static final int OP_ADD = 2;
+    private static final int OP_SUB = 3;
+    private static final int OP_MUL = 4;
+    private static final int OP_DIV = 5;
+    private static final int OP_NEG = 6;
+
+    private static final int CMP_NONE = 0;
+    private static final int CMP_EQ = 1;
+    private static final int CMP_LT = 2;
+    private static final int CMP_LE = 3;
+    private static final int CMP_GT = 4;
+    private static final int CMP_GE = 5;
+
+    private static final int KEEP_NONE = 0;
+    private static final int KEEP_HIGH = 1;
+    private static final int KEEP_LOW = 2;
+    private static final int DROP_HIGH = 3;
+    private static final int DROP_LOW = 4;
+
+    private final int[] code;
+    private final Term[] terms;
+    private final int stackSize;
+    private final String notation;
+    /** Literal fragments of the rendered result; {@code textParts[i]} precedes term {@code i}. */
+    private final String[] textParts;
+    /** Terms rolled as a sampled sum instead of die by die; {@code null} if none. */
+    private final boolean[] summed;
+    private final int diceCount;
+    private final int maxFaces;
+    private final int uniformFaces;
+
+    private DiceExpression(int[] code, Term[] terms, int stackSize, String notation, String[] textParts,
+                           boolean[] summed) {
+        this.code = code;
+        this.terms = terms;
+        this.stackSize = stackSize;
+        this.notation = notation;
+        this.textParts = textParts;
+        this.summed = summed;
+        long dice = 0;
+        int faces = 0;
+        for (Term term : terms) {
+            dice += term.dice;
+            faces = Math.max(faces, term.faces);
+        }
+        this.diceCount = (int) Math.min(Integer.MAX_VALUE, dice);
+        this.maxFaces = faces;
+        int uniform = summed == null ? faces : 0;
+        for (Term term : terms) {
+            if (term.faces != faces || term.rerollCmp != CMP_NONE) uniform = 0;
+        }
+        this.uniformFaces = uniform;
+    }
+
+    /**
+     * Compile {@code input} into an executable expression.
+     *
+     * @throws DiceParseException with the same error codes as {@link DiceParser#parse}
+     */
+    public static DiceExpression compile(String input, boolean allowShorthand) {
+        DiceParser.MutableDiceSpec spec = new DiceParser.MutableDiceSpec();
+        ParseError error = DiceParser.parseInto(input, allowShorthand, spec);
+        if (error == null) {
+            return of(spec.dice(), spec.faces());
+        }
+        if (error != ParseError.INVALID_NOTATION || input.length() > MAX_LENGTH) {
+            throw error == ParseError.INVALID_NOTATION
+                    ? new DiceParseException(error, allowShorthand)
+                    : new DiceParseException(error);
+        }
+        return new Compiler(input, allowShorthand).compile();
+    }
+
+    /** A single plain {@code NdM} term. */
+    public static DiceExpression of(int dice, int faces) {
+        Term term = new Term(dice, faces);
+        return new DiceExpression(new int[]{OP_DICE, 0}, new Term[]{term}, 1,
+                dice + "d" + faces, new String[]{"", ""}, null);
+    }
+
+    /** Canonical form of the expression, e.g. {@code 4d6kh3+2}. */
+    public String notation() {
+        return notation;
+    }
+
+    /** Dice requested across all terms, not counting explosions and rerolls. */
+    public int diceCount() {
+        return diceCount;
+    }
+
+    /** Largest face count of any term. */
+    public int maxFaces() {
+        return maxFaces;
+    }
+
+    /**
+     * The face count of every die in {@link RollResult} if each of them is an unbiased roll of that die, else 0.
+     * Keep/drop, explosions and success counts leave the individual dice fair; rerolls, mixed dice sizes and
+     * sum-only terms do not qualify.
+     */
+    public int uniformFaces() {
+        return uniformFaces;
+    }
+
+    /**
+     * Validate the expression against the configured caps and decide which terms are sum-only.
+     * <p>
+     * Plain {@code NdM} terms with more than {@code sumOnlyThreshold} dice are sampled as a total by
+     * {@link SumSampler}; terms with modifiers need every die and may not exceed the threshold.
+     * A threshold of 0 or less disables sum-only rolling.
+     *
+     * @return this expression, or a copy that samples its large terms
+     * @throws DiceParseException with {@link ParseError#LIMITS_EXCEEDED} above the caps, or with
+     *                             {@link ParseError#SUM_ONLY_MODIFIERS} for a modified term above the threshold
+     */
+    public DiceExpression applyLimits(int maxDice, int maxFaces, int sumOnlyThreshold) {
+        if (diceCount > maxDice || this.maxFaces > maxFaces) {
+            throw new DiceParseException(ParseError.LIMITS_EXCEEDED, false, notation);
+        }
+        if (sumOnlyThreshold <= 0) {
+            return this;
+        }
+        boolean[] large = null;
+        for (int i = 0; i < terms.length; i++) {
+            Term term = terms[i];
+            if (term.dice <= sumOnlyThreshold) continue;
+            if (!term.isPlain()) {
+                throw new DiceParseException(ParseError.SUM_ONLY_MODIFIERS, false, notation);
+            }
+            if (large == null) large = new boolean[terms.length];
+            large[i] = true;
+        }
+        return large == null ? this : new DiceExpression(code, terms, stackSize, notation, textParts, large);
+    }
+
+    /** Whether at least one term is rolled as a sampled sum. */
+    public boolean hasSummedTerms() {
+        return summed != null;
+    }
+
+    /** Roll every term once into a fresh {@link RollResult}. */
+    public RollResult evaluate(RandomGenerator rng) {
+        return evaluate(rng, new RollResult());
+    }
+
+    /** Roll every term once into {@code out}, overwriting its previous contents. */
+    public RollResult evaluate(RandomGenerator rng, RollResult out) {
+        return evaluate(rng, out, true);
+    }
+
+    /**
+     * Roll every term once into {@code out}; with {@code render} false the result text stays empty, for callers
+     * that only need totals and dice.
+     */
+    public RollResult evaluate(RandomGenerator rng, RollResult out, boolean render) {
+        out.reset();
+        StringBuilder text = render ? out.text : null;
+        long[] stack = out.stack(stackSize);
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case OP_CONST -> stack[sp++] = code[pc++];
+                case OP_DICE -> {
+                    int index = code[pc++];
+                    if (text != null) text.append(textParts[index]);
+                    stack[sp++] = summed != null && summed[index]
+                            ? rollSum(terms[index], rng, out, text)
+                            : roll(terms[index], rng, out, text);
+                }
+                case OP_ADD -> {
+                    sp--;
+                    stack[sp - 1] = saturatedAdd(stack[sp - 1], stack[sp]);
+                }
+                case OP_SUB -> {
+                    sp--;
+                    stack[sp - 1] = saturatedAdd(stack[sp - 1], saturatedNegate(stack[sp]));
+                }
+                case OP_MUL -> {
+                    sp--;
+                    stack[sp - 1] = saturatedMultiply(stack[sp - 1], stack[sp]);
+                }
+                case OP_DIV -> {
+                    sp--;
+                    stack[sp - 1] = stack[sp] == 0 ? 0 : saturatedDivide(stack[sp - 1], stack[sp]);
+                }
+                case OP_NEG -> stack[sp - 1] = saturatedNegate(stack[sp - 1]);
+                default -> throw new IllegalStateException("Unknown opcode " + code[pc - 1]);
+            }
+        }
+        if (text != null) text.append(textParts[terms.length]);
+        out.setTotal(stack[0]);
+        return out;
+    }
+
+    /**
+     * Roll one term into {@code out} and render it into {@code text} unless that is null; sum, min/max and text
+     * are produced in a single pass.
+     */
+    private static long roll(Term term, RandomGenerator rng, RollResult out, StringBuilder text) {
+        int from = out.size;
+        if (term.dice >= BATCH_MIN_DICE && term.explodeCmp == CMP_NONE && term.rerollCmp == CMP_NONE) {
+            // Reserve first: append may grow the buffer, and the array must be read after that
+            int start = out.append(term.dice);
+            DiceBatch.fill(rng, term.faces, out.values, start, term.dice);
+        } else for (int i = 0; i < term.dice; i++) {
+            int explosions = 0;
+            int value = rollDie(term, rng);
+            while (term.explodeCmp != CMP_NONE && explosions < MAX_EXPLOSIONS
+                    && matches(term.explodeCmp, term.explodeTarget, value)) {
+                out.add(value, RollResult.FLAG_EXPLODED);
+                explosions++;
+                value = rollDie(term, rng);
+            }
+            out.add(value, (byte) 0);
+        }
+        int to = out.size;
+
+        if (term.keepMode != KEEP_NONE) {
+            markDropped(term, out, from, to);
+        }
+
+        int[] values = out.values;
+        byte[] flags = out.flags;
+        long total = 0;
+        if (text != null) text.append('[');
+        for (int i = from; i < to; i++) {
+            int value = values[i];
+            if (text != null) {
+                if (i > from) text.append(", ");
+                if ((flags[i] & RollResult.FLAG_DROPPED) != 0) {
+                    text.append('(').append(value).append(')');
+                } else {
+                    text.append(value);
+                    if ((flags[i] & RollResult.FLAG_EXPLODED) != 0) text.append('!');
+                }
+            }
+            if ((flags[i] & RollResult.FLAG_DROPPED) != 0) continue;
+            out.observe(value);
+            if (term.successCmp != CMP_NONE) {
+                if (matches(term.successCmp, term.successTarget, value)) total++;
+            } else {
+                total += value;
+            }
+        }
+        if (text != null) text.append(']');
+        return total;
+    }
+
+    /** Sample a plain term's total in O(1)/O(log faces) and render it as a summary instead of a list. */
+    private static long rollSum(Term term, RandomGenerator rng, RollResult out, StringBuilder text) {
+        long total = SumSampler.sample(term.dice, term.faces, rng);
+        out.addSummed(term.dice);
+        if (text != null) text.append("[Σ").append(total).append(']');
+        return total;
+    }
+
+    private static int rollDie(Term term, RandomGenerator rng) {
+        int value = rng.nextInt(1, term.faces + 1);
+        if (term.rerollCmp != CMP_NONE) {
+            int limit = term.rerollOnce ? 1 : MAX_REROLLS;
+            for (int i = 0; i < limit && matches(term.rerollCmp, term.rerollTarget, value); i++) {
+                value = rng.nextInt(1, term.faces + 1);
+            }
+        }
+        return value;
+    }
+
+    /** Flag the dice removed by keep/drop; among equal values the earliest rolls are kept. */
+    private static void markDropped(Term term, RollResult out, int from, int to) {
+        int count = to - from;
+        int n = Math.min(term.keepCount, count);
+        int keep = term.keepMode == KEEP_HIGH || term.keepMode == KEEP_LOW ? n : count - n;
+        boolean highest = term.keepMode == KEEP_HIGH || term.keepMode == DROP_LOW;
+        if (keep >= count) return;
+
+        int[] values = out.values;
+        byte[] flags = out.flags;
+        if (keep == 0) {
+            for (int i = from; i < to; i++) flags[i] |= RollResult.FLAG_DROPPED;
+            return;
+        }
+
+        int[] sorted = out.scratch(count);
+        System.arraycopy(values, from, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int threshold = highest ? sorted[count - keep] : sorted[keep - 1];
+        int ties = keep;
+        for (int i = from; i < to; i++) {
+            if (highest ? values[i] > threshold : values[i] < threshold) ties--;
+        }
+        for (int i = from; i < to; i++) {
+            int value = values[i];
+            if (highest ? value > threshold : value < threshold) continue;
+            if (value == threshold && ties > 0) {
+                ties--;
+                continue;
+            }
+            flags[i] |= RollResult.FLAG_DROPPED;
+        }
+    }
+
+    private static boolean matches(int cmp, int target, int value) {
+        return switch (cmp) {
+            case CMP_EQ -> value == target;
+            case CMP_LT -> value < target;
+            case CMP_LE -> value <= target;
+            case CMP_GT -> value > target;
+            case CMP_GE -> value >= target;
+            default -> false;
+        };
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long r = a + b;
+        if (((a ^ r) & (b ^ r)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return r;
+    }
+
+    private static long saturatedNegate(long a) {
+        return a == Long.MIN_VALUE ? Long.MAX_VALUE : -a;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) {
+            return lo;
+        }
+        return (a < 0) == (b < 0) ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+
+    private static long saturatedDivide(long a, long b) {
+        return a == Long.MIN_VALUE && b == -1 ? Long.MAX_VALUE : a / b;
+    }
+
+    private static final class Term {
+        final int dice;
+        final int faces;
+        int explodeCmp = CMP_NONE;
+        int explodeTarget;
+        int rerollCmp = CMP_NONE;
+        int rerollTarget;
+        boolean rerollOnce;
+        int keepMode = KEEP_NONE;
+        int keepCount;
+        int successCmp = CMP_NONE;
+        int successTarget;
+
+        Term(int dice, int faces) {
+            this.dice = dice;
+            this.faces = faces;
+        }
+
+        boolean isPlain() {
+            return explodeCmp == CMP_NONE && rerollCmp == CMP_NONE
+                    && keepMode == KEEP_NONE && successCmp == CMP_NONE;
+        }
+    }
+
+    /** Recursive-descent compiler emitting postfix code. */
+    private static final class Compiler {
+        private static final long OVERFLOW = -1L;
+
+        private final String input;
+        private final boolean allowShorthand;
+        private final int end;
+        private int pos;
+        private int depth;
+
+        private int[] code = new int[16];
+        private int codeLength;
+        private int stack;
+        private int maxStack;
+        private final List<Term> terms = new ArrayList<>();
+        private final List<String> textParts = new ArrayList<>();
+        private final StringBuilder notation = new StringBuilder();
+        private final StringBuilder text = new StringBuilder();
+
+        Compiler(String input, boolean allowShorthand) {
+            this.input = input;
+            this.allowShorthand = allowShorthand;
+            this.end = input.length();
+        }
+
+        DiceExpression compile() {
+            skipSpaces();
+            parseSum();
+            skipSpaces();
+            if (pos != end) throw invalid();
+            textParts.add(text.toString());
+            return new DiceExpression(Arrays.copyOf(code, codeLength), terms.toArray(new Term[0]), maxStack,
+                    notation.toString(), textParts.toArray(new String[0]), null);
+        }
+
+        private void parseSum() {
+            parseProduct();
+            while (true) {
+                skipSpaces();
+                if (pos >= end) return;
+                char c = input.charAt(pos);
+                if (c != '+' && c != '-') return;
+                pos++;
+                appendOperator(c);
+                parseProduct();
+                emit(c == '+' ? OP_ADD : OP_SUB);
+            }
+        }
+
+        private void parseProduct() {
+            parseUnary();
+            while (true) {
+                skipSpaces();
+                if (pos >= end) return;
+                char c = input.charAt(pos);
+                if (c != '*' && c != '/') return;
+                pos++;
+                appendOperator(c);
+                parseUnary();
+                emit(c == '*' ? OP_MUL : OP_DIV);
+            }
+        }
+
+        private void parseUnary() {
+            skipSpaces();
+            if (pos >= end) throw invalid();
+            char c = input.charAt(pos);
+            if (c == '-' || c == '+') {
+                pos++;
+                notation.append(c);
+                text.append(c);
+                parseUnary();
+                if (c == '-') emit(OP_NEG);
+                return;
+            }
+            if (c == '(') {
+                if (++depth > MAX_DEPTH) throw invalid();
+                pos++;
+                notation.append('(');
+                text.append('(');
+                parseSum();
+                skipSpaces();
+                if (pos >= end || input.charAt(pos) != ')') throw invalid();
+                pos++;
+                depth--;
+                notation.append(')');
+                text.append(')');
+                return;
+            }
+            parseOperand();
+        }
+
+        private void parseOperand() {
+            int start = pos;
+            long count = readNumber();
+            boolean hasCount = pos > start;
+            if (pos < end && isD(input.charAt(pos))) {
+                parseDice(hasCount, count);
+                return;
+            }
+            if (!hasCount || count == OVERFLOW) throw invalid();
+            emit(OP_CONST, (int) count);
+            notation.append(count);
+            text.append(count);
+        }
+
+        private void parseDice(boolean hasCount, long count) {
+            pos++; // 'd'
+            int facesStart = pos;
+            long faces = readNumber();
+            if (pos == facesStart || (!hasCount && !allowShorthand)) throw invalid();
+            if (!hasCount) {
+                count = 1;
+            } else if (count == OVERFLOW) {
+                throw new DiceParseException(ParseError.DICE_NAN);
+            }
+            if (faces == OVERFLOW) throw new DiceParseException(ParseError.FACES_NAN);
+            if (count < 1) throw new DiceParseException(ParseError.DICE_TOO_LOW);
+            if (faces < 2) throw new DiceParseException(ParseError.FACES_TOO_LOW);
+            if (terms.size() >= MAX_TERMS) throw invalid();
+
+            Term term = new Term((int) count, (int) faces);
+            StringBuilder modifiers = new StringBuilder();
+            parseModifiers(term, modifiers);
+
+            notation.append(count).append('d').append(faces).append(modifiers);
+            textParts.add(text.toString());
+            text.setLength(0);
+            emit(OP_DICE, terms.size());
+            terms.add(term);
+        }
+
+        private void parseModifiers(Term term, StringBuilder out) {
+            while (pos < end) {
+                char c = Character.toLowerCase(input.charAt(pos));
+                if (c == '!') {
+                    if (term.explodeCmp != CMP_NONE) throw invalid();
+                    pos++;
+                    int cmp = readComparison(true);
+                    if (cmp == CMP_NONE) {
+                        term.explodeCmp = CMP_EQ;
+                        term.explodeTarget = term.faces;
+                        out.append('!');
+                    } else {
+                        term.explodeCmp = cmp;
+                        term.explodeTarget = readTarget();
+                        out.append('!');
+                        appendComparison(out, cmp, term.explodeTarget, true);
+                    }
+                    if (matchingFaces(cmp == CMP_NONE ? CMP_EQ : cmp, term.explodeTarget, term.faces) >= term.faces) {
+                        throw invalid();
+                    }
+                } else if (c == 'r') {
+                    if (term.rerollCmp != CMP_NONE) throw invalid();
+                    pos++;
+                    if (pos < end && Character.toLowerCase(input.charAt(pos)) == 'o') {
+                        term.rerollOnce = true;
+                        pos++;
+                    }
+                    int cmp = readComparison(true);
+                    if (cmp == CMP_NONE) throw invalid();
+                    term.rerollCmp = cmp;
+                    term.rerollTarget = readTarget();
+                    if (matchingFaces(cmp, term.rerollTarget, term.faces) >= term.faces) throw invalid();
+                    out.append(term.rerollOnce ? "ro" : "r");
+                    appendComparison(out, cmp, term.rerollTarget, true);
+                } else if (c == 'k' || (c == 'd' && pos + 1 < end && isHighLow(input.charAt(pos + 1)))) {
+                    if (term.keepMode != KEEP_NONE) throw invalid();
+                    pos++;
+                    char side = pos < end ? Character.toLowerCase(input.charAt(pos)) : 0;
+                    boolean low = side == 'l';
+                    if (side == 'h' || side == 'l') pos++;
+                    if (c == 'k') {
+                        term.keepMode = low ? KEEP_LOW : KEEP_HIGH;
+                        out.append(low ? "kl" : "kh");
+                    } else {
+                        term.keepMode = low ? DROP_LOW : DROP_HIGH;
+                        out.append(low ? "dl" : "dh");
+                    }
+                    term.keepCount = readTarget();
+                    out.append(term.keepCount);
+                } else if (c == '<' || c == '>' || c == '=') {
+                    if (term.successCmp != CMP_NONE) throw invalid();
+                    term.successCmp = readComparison(false);
+                    term.successTarget = readTarget();
+                    appendComparison(out, term.successCmp, term.successTarget, false);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private int readComparison(boolean allowBare) {
+            if (pos >= end) return CMP_NONE;
+            char c = input.charAt(pos);
+            boolean orEqual = pos + 1 < end && input.charAt(pos + 1) == '=';
+            switch (c) {
+                case '<' -> {
+                    pos += orEqual ? 2 : 1;
+                    return orEqual ? CMP_LE : CMP_LT;
+                }
+                case '>' -> {
+                    pos += orEqual ? 2 : 1;
+                    return orEqual ? CMP_GE : CMP_GT;
+                }
+                case '=' -> {
+                    pos++;
+                    return CMP_EQ;
+                }
+                default -> {
+                    return allowBare && isDigit(c) ? CMP_EQ : CMP_NONE;
+                }
+            }
+        }
+
+        private int readTarget() {
+            int start = pos;
+            long value = readNumber();
+            if (pos == start || value == OVERFLOW) throw invalid();
+            return (int) value;
+        }
+
+        private long readNumber() {
+            long value = 0;
+            while (pos < end && isDigit(input.charAt(pos))) {
+                if (value != OVERFLOW) {
+                    value = value * 10 + (input.charAt(pos) - '0');
+                    if (value > Integer.MAX_VALUE) value = OVERFLOW;
+                }
+                pos++;
+            }
+            return value;
+        }
+
+        private void appendOperator(char op) {
+            notation.append(op);
+            text.append(' ').append(op).append(' ');
+        }
+
+        private void emit(int op) {
+            ensureCode(1);
+            code[codeLength++] = op;
+            stack += op == OP_NEG ? 0 : -1;
+        }
+
+        private void emit(int op, int operand) {
+            ensureCode(2);
+            code[codeLength++] = op;
+            code[codeLength++] = operand;
+            maxStack = Math.max(maxStack, ++stack);
+        }
+
+        private void ensureCode(int extra) {
+            if (codeLength + extra > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, codeLength + extra));
+            }
+        }
+
+        private void skipSpaces() {
+            while (pos < end && isSpace(input.charAt(pos))) pos++;
+        }
+
+        private DiceParseException invalid() {
+            return new DiceParseException(ParseError.INVALID_NOTATION, allowShorthand);
+        }
+
+        private static void appendComparison(StringBuilder out, int cmp, int target, boolean bareEquals) {
+            switch (cmp) {
+                case CMP_EQ -> out.append(bareEquals ? "" : "=");
+                case CMP_LT -> out.append('<');
+                case CMP_LE -> out.append("<=");
+                case CMP_GT -> out.append('>');
+                case CMP_GE -> out.append(">=");
+                default -> {
+                }
+            }
+            out.append(target);
+        }
+
+        /** Number of faces in [1, faces] that satisfy the comparison. */
+        private static long matchingFaces(int cmp, int target, int faces) {
+            long t = target;
+            long matching = switch (cmp) {
+                case CMP_EQ -> t >= 1 && t <= faces ? 1 : 0;
+                case CMP_LT -> t - 1;
+                case CMP_LE -> t;
+                case CMP_GT -> faces - t;
+                case CMP_GE -> faces - t + 1;
+                default -> 0;
+            };
+            return Math.max(0, Math.min(faces, matching));
+        }
+
+        private static boolean isD(char c) {
+            return c == 'd' || c == 'D';
+        }
+
+        private static boolean isHighLow(char c) {
+            c = Character.toLowerCase(c);
+            return c == 'h' || c == 'l';
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
+}
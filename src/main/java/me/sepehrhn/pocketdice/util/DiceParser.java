@@ -1,60 +1,143 @@
 // File: src/main/java/me/sepehrhn/pocketdice/util/DiceParser.java
 package me.sepehrhn.pocketdice.util;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Parses dice notation like "2d6" or "d20" (if shorthand allowed).
  * Validates lower bounds: N >= 1, M >= 2.
+ * <p>
+ * The scanner walks the input once, char by char, and accumulates both numbers directly into ints,
+ * so a successful parse allocates nothing but the returned {@link DiceSpec}
+ * ({@link #parseInto} allocates nothing at all).
  */
 public final class DiceParser {
 
-    private static final Pattern FULL = Pattern.compile("^\\s*(\\d+)[dD](\\d+)\\s*$");
-    private static final Pattern SHORTHAND = Pattern.compile("^\\s*[dD](\\d+)\\s*$");
+    /** Scan outcome flag for a number that did not fit into an int. */
+    private static final long OVERFLOW = -1L;
+    private static final ParseError[] ERRORS = ParseError.values();
 
     private DiceParser() {}
 
     public static DiceSpec parse(String input, boolean allowShorthand) {
-        if (input == null || input.isBlank()) {
-            throw new DiceParseException(ParseError.MISSING_NOTATION);
+        long packed = scan(input, allowShorthand);
+        if (packed < 0) {
+            throw toException(errorOf(packed), allowShorthand);
         }
+        return new DiceSpec(diceOf(packed), facesOf(packed));
+    }
 
-        Matcher m = FULL.matcher(input);
-        if (m.matches()) {
-            int dice = parseInt(m.group(1), true);
-            int faces = parseInt(m.group(2), false);
-            validate(dice, faces);
-            return new DiceSpec(dice, faces);
+    /**
+     * Zero-allocation variant of {@link #parse}: writes the parsed values into {@code out}.
+     *
+     * @return {@code null} on success, otherwise the error; {@code out} is left untouched on error
+     */
+    public static ParseError parseInto(CharSequence input, boolean allowShorthand, MutableDiceSpec out) {
+        long packed = scan(input, allowShorthand);
+        if (packed < 0) {
+            return errorOf(packed);
         }
+        out.set(diceOf(packed), facesOf(packed));
+        return null;
+    }
 
-        if (allowShorthand) {
-            Matcher s = SHORTHAND.matcher(input);
-            if (s.matches()) {
-                int faces = parseInt(s.group(1), false);
-                validate(1, faces);
-                return new DiceSpec(1, faces);
-            }
+    /**
+     * Single pass over {@code input}. Returns {@code dice << 32 | faces} on success, or
+     * {@code -(error.ordinal() + 1)} on failure. Error precedence matches the historic regex parser:
+     * shape first, then dice overflow, faces overflow, dice lower bound, faces lower bound.
+     */
+    private static long scan(CharSequence input, boolean allowShorthand) {
+        if (input == null || isBlank(input)) {
+            return fail(ParseError.MISSING_NOTATION);
+        }
+        int end = input.length();
+        int pos = 0;
+        while (pos < end && isSpace(input.charAt(pos))) pos++;
+        while (end > pos && isSpace(input.charAt(end - 1))) end--;
+
+        // Optional dice count
+        int diceStart = pos;
+        long dice = 0;
+        while (pos < end && isDigit(input.charAt(pos))) {
+            dice = accumulate(dice, input.charAt(pos));
+            pos++;
         }
+        boolean shorthand = pos == diceStart;
 
-        throw new DiceParseException(ParseError.INVALID_NOTATION, allowShorthand);
-    }
+        if (pos == end || (input.charAt(pos) != 'd' && input.charAt(pos) != 'D')) {
+            return fail(ParseError.INVALID_NOTATION);
+        }
+        pos++;
 
-    private static int parseInt(String s, boolean diceField) {
-        try {
-            return Integer.parseInt(s);
-        } catch (NumberFormatException ex) {
-            throw new DiceParseException(diceField ? ParseError.DICE_NAN : ParseError.FACES_NAN);
+        int facesStart = pos;
+        long faces = 0;
+        while (pos < end && isDigit(input.charAt(pos))) {
+            faces = accumulate(faces, input.charAt(pos));
+            pos++;
+        }
+        if (pos == facesStart || pos != end || (shorthand && !allowShorthand)) {
+            return fail(ParseError.INVALID_NOTATION);
         }
-    }
 
-    private static void validate(int dice, int faces) {
+        if (shorthand) {
+            dice = 1;
+        } else if (dice == OVERFLOW) {
+            return fail(ParseError.DICE_NAN);
+        }
+        if (faces == OVERFLOW) {
+            return fail(ParseError.FACES_NAN);
+        }
         if (dice < 1) {
-            throw new DiceParseException(ParseError.DICE_TOO_LOW);
+            return fail(ParseError.DICE_TOO_LOW);
         }
         if (faces < 2) {
-            throw new DiceParseException(ParseError.FACES_TOO_LOW);
+            return fail(ParseError.FACES_TOO_LOW);
         }
+        return dice << 32 | faces;
+    }
+
+    /** Append one decimal digit; sticks at {@link #OVERFLOW} once the value leaves int range. */
+    private static long accumulate(long value, char digit) {
+        if (value == OVERFLOW) return OVERFLOW;
+        long next = value * 10 + (digit - '0');
+        return next > Integer.MAX_VALUE ? OVERFLOW : next;
+    }
+
+    /** Same character class as regex {@code \d} without UNICODE_CHARACTER_CLASS. */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Same character class as regex {@code \s} without UNICODE_CHARACTER_CLASS. */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isBlank(CharSequence input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (!Character.isWhitespace(input.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static long fail(ParseError error) {
+        return -(error.ordinal() + 1L);
+    }
+
+    private static ParseError errorOf(long packed) {
+        return ERRORS[(int) (-packed - 1)];
+    }
+
+    private static int diceOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int facesOf(long packed) {
+        return (int) packed;
+    }
+
+    private static DiceParseException toException(ParseError error, boolean allowShorthand) {
+        return error == ParseError.INVALID_NOTATION
+                ? new DiceParseException(error, allowShorthand)
+                : new DiceParseException(error);
     }
 
     public enum ParseError {
@@ -63,20 +146,28 @@ public final class DiceParser {
         DICE_NAN,
         FACES_NAN,
         DICE_TOO_LOW,
-        FACES_TOO_LOW
+        FACES_TOO_LOW,
+        LIMITS_EXCEEDED,
+        SUM_ONLY_MODIFIERS
     }
 
     public static class DiceParseException extends IllegalArgumentException {
         private final ParseError error;
         private final boolean shorthandAllowed;
+        private final String notation;
 
         public DiceParseException(ParseError error) {
             this(error, false);
         }
 
         public DiceParseException(ParseError error, boolean shorthandAllowed) {
+            this(error, shorthandAllowed, null);
+        }
+
+        public DiceParseException(ParseError error, boolean shorthandAllowed, String notation) {
             this.error = error;
             this.shorthandAllowed = shorthandAllowed;
+            this.notation = notation;
         }
 
         public ParseError getError() {
@@ -86,7 +177,35 @@ public final class DiceParser {
         public boolean isShorthandAllowed() {
             return shorthandAllowed;
         }
+
+        /** Canonical notation that failed validation, if it parsed at all. */
+        public String getNotation() {
+            return notation;
+        }
     }
 
     public record DiceSpec(int dice, int faces) {}
+
+    /** Reusable target for {@link #parseInto}; not thread-safe. */
+    public static final class MutableDiceSpec {
+        private int dice;
+        private int faces;
+
+        public int dice() {
+            return dice;
+        }
+
+        public int faces() {
+            return faces;
+        }
+
+        void set(int dice, int faces) {
+            this.dice = dice;
+            this.faces = faces;
+        }
+
+        public DiceSpec toSpec() {
+            return new DiceSpec(dice, faces);
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package me.sepehrhn.pocketdice.util;
+
+import me.sepehrhn.pocketdice.util.DiceParser.DiceParseException;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of compiled notations keyed by the trimmed input string.
+ * <p>
+ * Lookups are lock-free; only eviction takes a lock. Invalid inputs are cached too (as the exception to
+ * rethrow), so repeated garbage never reaches the compiler twice. Eviction is approximately LRU: it drops the least
+ * recently used of a few entries sampled from a random part of the map, so a miss at capacity costs the same at any
+ * cache size. Access times are only rewritten once they are a millisecond stale, so hits on a hot notation do not
+ * keep writing the same cache line. Entries are only valid for the
+ * {@code allow_shorthand}/{@code max_dice}/{@code max_faces}/{@code sum_only_threshold} values they were
+ * compiled with.
+ */
+public final class NotationCache {
+
+    private static final int EVICTION_SAMPLES = 8;
+    private static final long ACCESS_RESOLUTION = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongSupplier ticker;
+
+    private volatile Settings settings;
+    private volatile int capacity;
+
+    public NotationCache(int capacity, boolean allowShorthand, int maxDice, int maxFaces, int sumOnlyThreshold) {
+        this(capacity, allowShorthand, maxDice, maxFaces, sumOnlyThreshold, System::nanoTime);
+    }
+
+    /** @param ticker nanosecond clock used for recency; tests pass a manual one */
+    NotationCache(int capacity, boolean allowShorthand, int maxDice, int maxFaces, int sumOnlyThreshold,
+                  LongSupplier ticker) {
+        this.ticker = ticker;
+        this.capacity = Math.max(0, capacity);
+        this.settings = new Settings(allowShorthand, maxDice, maxFaces, sumOnlyThreshold);
+    }
+
+    /**
+     * Return the compiled expression for {@code notation}, compiling and caching it on a miss.
+     *
+     * @throws DiceParseException if the notation is invalid or exceeds the configured limits
+     */
+    public DiceExpression get(String notation) {
+        Settings current = settings;
+        Entry entry = entries.get(notation);
+        if (entry != null && entry.settings == current) {
+            hits.increment();
+            long now = ticker.getAsLong();
+            if (now - entry.lastAccess >= ACCESS_RESOLUTION) {
+                entry.lastAccess = now;
+            }
+            return entry.resolve();
+        }
+
+        misses.increment();
+        entry = load(notation, current, ticker.getAsLong());
+        if (capacity > 0 && notation.length() <= DiceExpression.MAX_LENGTH) {
+            entries.put(notation, entry);
+            if (entries.size() > capacity) {
+                evict();
+            }
+        }
+        return entry.resolve();
+    }
+
+    /** Apply new settings; drops every entry if any of them changed. */
+    public void configure(int capacity, boolean allowShorthand, int maxDice, int maxFaces, int sumOnlyThreshold) {
+        this.capacity = Math.max(0, capacity);
+        Settings next = new Settings(allowShorthand, maxDice, maxFaces, sumOnlyThreshold);
+        if (!next.equals(settings)) {
+            settings = next;
+            entries.clear();
+        } else if (entries.size() > this.capacity) {
+            evict();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), capacity, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private static Entry load(String notation, Settings settings, long now) {
+        try {
+            DiceExpression expression = DiceExpression.compile(notation, settings.allowShorthand())
+                    .applyLimits(settings.maxDice(), settings.maxFaces(), settings.sumOnlyThreshold());
+            return new Entry(settings, expression, null, now);
+        } catch (DiceParseException ex) {
+            return new Entry(settings, null, ex, now);
+        }
+    }
+
+    /** Remove sampled least recently used entries until the cache fits. */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return; // another thread is already trimming
+        }
+        try {
+            while (entries.size() > capacity) {
+                Map.Entry<String, Entry> oldest = sampleOldest();
+                if (oldest == null) {
+                    return;
+                }
+                if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * The least recently used of up to {@link #EVICTION_SAMPLES} entries. Halving the map's spliterator at random
+     * reaches an arbitrary stretch of the table in O(log size) steps.
+     */
+    private Map.Entry<String, Entry> sampleOldest() {
+        Spliterator<Map.Entry<String, Entry>> region = entries.entrySet().spliterator();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (region.estimateSize() > 2L * EVICTION_SAMPLES) {
+            Spliterator<Map.Entry<String, Entry>> half = region.trySplit();
+            if (half == null) break;
+            if (random.nextBoolean()) region = half;
+        }
+        Oldest oldest = new Oldest();
+        int sampled = 0;
+        while (sampled < EVICTION_SAMPLES && region.tryAdvance(oldest)) {
+            sampled++;
+        }
+        if (oldest.entry == null) {
+            // The chosen stretch happened to be empty; any entry will do
+            var all = entries.entrySet().iterator();
+            return all.hasNext() ? all.next() : null;
+        }
+        return oldest.entry;
+    }
+
+    private static final class Oldest implements Consumer<Map.Entry<String, Entry>> {
+        Map.Entry<String, Entry> entry;
+
+        @Override
+        public void accept(Map.Entry<String, Entry> candidate) {
+            if (entry == null || candidate.getValue().lastAccess - entry.getValue().lastAccess < 0) {
+                entry = candidate;
+            }
+        }
+    }
+
+    private record Settings(boolean allowShorthand, int maxDice, int maxFaces, int sumOnlyThreshold) {
+    }
+
+    private static final class Entry {
+        final Settings settings;
+        final DiceExpression expression;
+        final DiceParseException error;
+        volatile long lastAccess;
+
+        Entry(Settings settings, DiceExpression expression, DiceParseException error, long now) {
+            this.lastAccess = now;
+            this.settings = settings;
+            this.expression = expression;
+            this.error = error;
+        }
+
+        DiceExpression resolve() {
+            if (error != null) {
+                throw error;
+            }
+            return expression;
+        }
+    }
+
+    public record Stats(int size, int capacity, long hits, long misses, long evictions) {
+    }
+}
@@ -0,0 +1,78 @@
+package me.sepehrhn.pocketdice.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player token buckets for {@code /roll}, each stored as a single timestamp.
+ * <p>
+ * A bucket of {@code burst} tokens refilled at {@code rate} per second is tracked as the time its next token
+ * would be due if the bucket were empty (the generic cell rate algorithm). An accepted roll pushes that time one
+ * refill interval further; a roll is rejected while it lies more than {@code burst - 1} intervals ahead. Every
+ * player costs one {@link AtomicLong} updated by compare-and-set, so there is no lock and no refill timer.
+ */
+public final class RateLimiter {
+
+    private final Map<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private volatile Limits limits;
+
+    public RateLimiter(int burst, double refillPerSecond) {
+        configure(burst, refillPerSecond);
+    }
+
+    /** Apply new limits; buckets keep their state, so a reload does not hand out a fresh burst. */
+    public void configure(int burst, double refillPerSecond) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be >= 1");
+        }
+        if (!(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("refillPerSecond must be > 0");
+        }
+        long interval = Math.max(1L, Math.round(1_000_000_000D / refillPerSecond));
+        limits = new Limits(interval, Math.multiplyExact(burst - 1L, interval));
+    }
+
+    /**
+     * Take one token for {@code player}.
+     *
+     * @param now a {@link System#nanoTime()} reading
+     * @return 0 if the roll may go ahead, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(UUID player, long now) {
+        Limits current = limits;
+        AtomicLong due = buckets.get(player);
+        if (due == null) {
+            due = buckets.computeIfAbsent(player, id -> new AtomicLong(now));
+        }
+        while (true) {
+            long previous = due.get();
+            // nanoTime may wrap, so compare by difference
+            long start = previous - now > 0 ? previous : now;
+            long wait = start - now - current.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (due.compareAndSet(previous, start + current.intervalNanos())) {
+                return 0L;
+            }
+        }
+    }
+
+    /** Drop the bucket of a player who left. */
+    public void forget(UUID player) {
+        buckets.remove(player);
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private record Limits(long intervalNanos, long toleranceNanos) {
+    }
+}
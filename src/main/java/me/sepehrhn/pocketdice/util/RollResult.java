@@ -0,0 +1,144 @@
+package me.sepehrhn.pocketdice.util;
+
+import java.util.Arrays;
+
+/**
+ * Primitive buffer holding one evaluation of a {@link DiceExpression}: every die in roll order, its flags,
+ * the total, the min/max of the kept dice and the rendered result text.
+ * <p>
+ * Buffers are meant to be reused. {@link #local()} hands out one instance per thread, so callers must not
+ * hold on to it (or to {@link #textView()}) after the current command returns.
+ */
+public final class RollResult {
+
+    static final byte FLAG_DROPPED = 1;
+    static final byte FLAG_EXPLODED = 2;
+
+    private static final ThreadLocal<RollResult> LOCAL = ThreadLocal.withInitial(RollResult::new);
+
+    int[] values = new int[16];
+    byte[] flags = new byte[16];
+    int size;
+
+    private int[] scratch = new int[16];
+    private long[] stack = new long[8];
+    final StringBuilder text = new StringBuilder(64);
+
+    private long total;
+    private long summedDice;
+    private int min;
+    private int max;
+
+    /** The calling thread's reusable buffer. */
+    public static RollResult local() {
+        return LOCAL.get();
+    }
+
+    void reset() {
+        size = 0;
+        total = 0;
+        summedDice = 0;
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+        text.setLength(0);
+    }
+
+    /** Append one die and return its index. */
+    int add(int value, byte flag) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            flags = Arrays.copyOf(flags, size * 2);
+        }
+        values[size] = value;
+        flags[size] = flag;
+        return size++;
+    }
+
+    /** Reserve {@code count} unflagged slots for bulk filling and return the first index. */
+    int append(int count) {
+        int from = size;
+        int required = from + count;
+        if (required > values.length) {
+            int capacity = Math.max(required, values.length * 2);
+            values = Arrays.copyOf(values, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        Arrays.fill(flags, from, required, (byte) 0);
+        size = required;
+        return from;
+    }
+
+    /** Record dice that were sampled as a total and therefore have no individual values. */
+    void addSummed(int dice) {
+        summedDice += dice;
+    }
+
+    /** Track min/max of a kept die. */
+    void observe(int value) {
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    int[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new int[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    long[] stack(int length) {
+        if (stack.length < length) {
+            stack = new long[length];
+        }
+        return stack;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /** Smallest kept die, or 0 if no die was kept. */
+    public int min() {
+        return min == Integer.MAX_VALUE ? 0 : min;
+    }
+
+    /** Largest kept die, or 0 if no die was kept. */
+    public int max() {
+        return max == Integer.MIN_VALUE ? 0 : max;
+    }
+
+    /** Dice rolled as a sampled sum; they are not part of {@link #size()}, {@link #min()} or {@link #max()}. */
+    public long summedDice() {
+        return summedDice;
+    }
+
+    /** Number of dice rolled individually, including explosions and dropped dice. */
+    public int size() {
+        return size;
+    }
+
+    public int value(int index) {
+        return values[index];
+    }
+
+    public boolean isDropped(int index) {
+        return (flags[index] & FLAG_DROPPED) != 0;
+    }
+
+    public boolean isExploded(int index) {
+        return (flags[index] & FLAG_EXPLODED) != 0;
+    }
+
+    /** Rendered results, e.g. {@code [7, 13]}; a live view that changes with the next evaluation. */
+    public CharSequence textView() {
+        return text;
+    }
+
+    public String text() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package me.sepehrhn.pocketdice.util;
+
+import me.sepehrhn.pocketdice.random.RandomProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Monte Carlo runner for {@code /pocketdice simulate}: evaluates an expression many times on a dedicated
+ * {@link ForkJoinPool} and reports the spread of the totals.
+ * <p>
+ * Trials are split into a few chunks per worker. Every chunk rolls from its own split
+ * {@link SplittableGenerator} stream and counts totals into a private {@code long[]} histogram, so workers never
+ * share mutable state, and results are evaluated without rendering their text; histograms and moments are merged as the fork/join tree unwinds. A short pilot run
+ * fixes the histogram window, and totals outside it are clamped into the edge buckets (min and max stay exact).
+ */
+public final class RollSimulator {
+
+    /** Histogram resolution; windows wider than this are grouped into equal-width buckets. */
+    static final int BUCKETS = 4096;
+    private static final int PILOT_TRIALS = 4096;
+    private static final long MIN_CHUNK = 16_384L;
+
+    private final ForkJoinPool pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** @param parallelism worker threads; see {@link #resolveParallelism} */
+    public RollSimulator(int parallelism) {
+        this.pool = new ForkJoinPool(resolveParallelism(parallelism));
+    }
+
+    /** Configured worker count; 0 or less means one less than the number of CPU cores. */
+    public static int resolveParallelism(int configured) {
+        return configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Start a simulation on the worker pool.
+     *
+     * @return the pending summary, failed if the pool no longer accepts work, or {@code null} if another
+     * simulation is still running
+     */
+    public CompletableFuture<Summary> simulate(DiceExpression expression, long trials, long seed) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> run(expression, trials, seed, pool.getParallelism()), pool)
+                    .whenComplete((summary, error) -> running.set(false));
+        } catch (RejectedExecutionException ex) {
+            // Pool shut down by a reload; nothing will ever clear the flag otherwise
+            running.set(false);
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /** Stop accepting simulations; a running one still completes. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /** Stop accepting simulations and cancel a running one. */
+    public void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    /** Run {@code trials} evaluations, forking into the calling thread's pool (or the common pool). */
+    static Summary run(DiceExpression expression, long trials, long seed, int parallelism) {
+        if (trials < 1) {
+            throw new IllegalArgumentException("trials must be >= 1");
+        }
+        long started = System.nanoTime();
+        SplittableGenerator root = (SplittableGenerator) RandomGeneratorFactory
+                .of(RandomProvider.DEFAULT_SEEDED_ALGORITHM).create(seed);
+
+        // Pilot: find where the totals live so the histogram window fits them
+        RollResult result = RollResult.local();
+        long pilotMin = Long.MAX_VALUE;
+        long pilotMax = Long.MIN_VALUE;
+        RandomGenerator pilotRng = root.split();
+        for (int i = 0; i < PILOT_TRIALS; i++) {
+            long total = expression.evaluate(pilotRng, result, false).total();
+            pilotMin = Math.min(pilotMin, total);
+            pilotMax = Math.max(pilotMax, total);
+        }
+        // Pad by half the observed span on each side; doubles saturate on the cast back to long
+        double span = (double) pilotMax - pilotMin;
+        long lo = (long) (pilotMin - span / 2 - 1);
+        long hi = (long) (pilotMax + span / 2 + 1);
+        long width = Math.max(1L, (long) Math.ceil(((double) hi - lo + 1) / BUCKETS));
+        Window window = new Window(lo, width, (int) Math.min(BUCKETS, ((double) hi - lo) / width + 1));
+
+        // About four chunks per worker leaves room for work stealing without many histograms
+        long chunk = Math.max(MIN_CHUNK, trials / (4L * Math.max(1, parallelism)));
+        Tally tally = new Chunk(expression, window, root, 0, trials, chunk).invoke();
+        return tally.summarize(window, System.nanoTime() - started);
+    }
+
+    /** Histogram layout shared by every chunk of one run. */
+    private record Window(long lo, long width, int buckets) {
+        int bucket(long total) {
+            long offset = total - lo;
+            if (((total ^ lo) & (total ^ offset)) < 0) {
+                offset = total < lo ? Long.MIN_VALUE : Long.MAX_VALUE;
+            }
+            if (offset < 0) return 0;
+            return (int) Math.min(buckets - 1, offset / width);
+        }
+
+        /** Representative total of a bucket: its value, or its midpoint when buckets are grouped. */
+        long value(int bucket) {
+            return lo + bucket * width + width / 2;
+        }
+    }
+
+    private static final class Chunk extends RecursiveTask<Tally> {
+        private final DiceExpression expression;
+        private final Window window;
+        private final SplittableGenerator rng;
+        private final long from;
+        private final long to;
+        private final long chunk;
+
+        Chunk(DiceExpression expression, Window window, SplittableGenerator rng, long from, long to, long chunk) {
+            this.expression = expression;
+            this.window = window;
+            this.rng = rng;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= chunk) {
+                return roll();
+            }
+            long mid = from + (to - from) / 2;
+            // The forked half gets a new stream; this task keeps its own
+            Chunk left = new Chunk(expression, window, rng.split(), from, mid, chunk);
+            Chunk right = new Chunk(expression, window, rng, mid, to, chunk);
+            left.fork();
+            Tally tally = right.compute();
+            tally.merge(left.join());
+            return tally;
+        }
+
+        private Tally roll() {
+            Tally tally = new Tally(window.buckets());
+            RollResult result = RollResult.local();
+            for (long i = from; i < to; i++) {
+                long total = expression.evaluate(rng, result, false).total();
+                tally.add(window.bucket(total), total);
+            }
+            return tally;
+        }
+    }
+
+    /** Per-chunk counts, merged pairwise; moments use Chan's parallel update to stay stable. */
+    private static final class Tally {
+        final long[] counts;
+        long n;
+        double mean;
+        double m2;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        Tally(int buckets) {
+            this.counts = new long[buckets];
+        }
+
+        void add(int bucket, long total) {
+            counts[bucket]++;
+            n++;
+            double delta = total - mean;
+            mean += delta / n;
+            m2 += delta * (total - mean);
+            if (total < min) min = total;
+            if (total > max) max = total;
+        }
+
+        void merge(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            long combined = n + other.n;
+            double delta = other.mean - mean;
+            mean += delta * other.n / combined;
+            m2 += other.m2 + delta * delta * ((double) n * other.n / combined);
+            n = combined;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        Summary summarize(Window window, long elapsedNanos) {
+            return new Summary(n, mean, Math.sqrt(m2 / n), min, max,
+                    percentile(window, 0.05), percentile(window, 0.50), percentile(window, 0.95), elapsedNanos);
+        }
+
+        private long percentile(Window window, double p) {
+            long target = (long) Math.ceil(p * n);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    return Math.max(min, Math.min(max, window.value(i)));
+                }
+            }
+            return max;
+        }
+    }
+
+    /** Result of one run; percentiles are exact when the histogram window needed no grouping. */
+    public record Summary(long trials, double mean, double standardDeviation, long min, long max,
+                          long p5, long median, long p95, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,56 @@
+package me.sepehrhn.pocketdice.util;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples the total of N fair M-sided dice without rolling each die.
+ * <p>
+ * Moderate pools draw from the exact distribution: the CDF comes from the {@link DiceDistribution} cache,
+ * after which each sample is a binary search. Pools too large for an exact table use a normal approximation
+ * rounded to the nearest integer, which is indistinguishable from the exact sum at those sizes and costs O(1).
+ */
+public final class SumSampler {
+
+    /** Upper bound on convolution work (dice x table size) for an exact table, roughly a millisecond. */
+    static final long EXACT_WORK_LIMIT = DiceDistribution.DIRECT_WORK_LIMIT;
+
+    private SumSampler() {
+    }
+
+    public static long sample(int dice, int faces, RandomGenerator rng) {
+        if (hasExactTable(dice, faces)) {
+            double[] cdf = cdf(dice, faces);
+            return dice + search(cdf, rng.nextDouble());
+        }
+        double mean = dice * (faces + 1.0) / 2.0;
+        double variance = dice * ((double) faces * faces - 1.0) / 12.0;
+        long value = Math.round(mean + Math.sqrt(variance) * rng.nextGaussian());
+        return Math.max(dice, Math.min((long) dice * faces, value));
+    }
+
+    /** Whether {@link #sample} uses an exact table for this pool. */
+    public static boolean hasExactTable(int dice, int faces) {
+        long range = (long) dice * (faces - 1) + 1;
+        return range * dice <= EXACT_WORK_LIMIT;
+    }
+
+    /** Cumulative distribution of {@code sum - dice}, i.e. index 0 is the all-ones roll. */
+    static double[] cdf(int dice, int faces) {
+        return DiceDistribution.of(dice, faces).cdf();
+    }
+
+    /** First index whose cumulative probability exceeds {@code u}. */
+    private static int search(double[] cdf, double u) {
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] > u) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
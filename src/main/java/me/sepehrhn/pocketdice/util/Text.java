@@ -29,6 +29,12 @@ public final class Text {
         return out;
     }
 
+    /** Escape MiniMessage tags in user-supplied text before it is inserted into a template. */
+    public static String escape(String raw) {
+        if (raw == null) return "";
+        return MINI.escapeTags(raw);
+    }
+
     /** Deserialize MiniMessage to a Component. */
     public static Component toComponent(String raw) {
         if (raw == null) return Component.empty();
@@ -51,7 +57,6 @@ public final class Text {
 
     /** Send a locale-backed message with optional placeholders. */
     public static void sendLocale(PocketDice plugin, CommandSender sender, String key, Map<String, String> placeholders) {
-        String raw = plugin.getLocaleManager().get(sender, key, placeholders);
-        sender.sendMessage(toComponent(raw));
+        sender.sendMessage(plugin.getLocaleManager().component(sender, key, placeholders));
     }
 }
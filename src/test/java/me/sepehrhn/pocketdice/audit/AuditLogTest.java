@@ -0,0 +1,165 @@
+package me.sepehrhn.pocketdice.audit;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    private static final Logger LOGGER = Logger.getLogger("AuditLogTest");
+
+    @TempDir
+    Path dir;
+
+    private static AuditRecord record(long time, String notation, long seed) {
+        var expression = DiceExpression.compile(notation, true);
+        var result = expression.evaluate(new SplittableRandom(seed), RollResult.local());
+        var captured = AuditLog.capture(new UUID(1, seed), expression, result, "world_nether", 10, 64, (int) -seed);
+        return new AuditRecord(time, captured.player(), captured.notation(), captured.dice(), captured.faces(),
+                captured.total(), captured.results(), captured.rolled(), captured.world(), captured.x(), captured.y(),
+                captured.z());
+    }
+
+    private static List<AuditRecord> readAll(Path dir) throws IOException {
+        List<AuditRecord> out = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> AuditSegment.sequenceOf(p) > 0).sorted().toList();
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int count = AuditSegment.readCount(in);
+                for (int i = 0; i < count; i++) {
+                    out.add(AuditRecord.decode(in, AuditSegment.HEADER_SIZE + i * AuditRecord.SIZE));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Test
+    void recordRoundTrips() {
+        var original = record(1_700_000_000_000L, "4d6kh3+2", 7);
+        ByteBuffer buffer = ByteBuffer.allocate(AuditRecord.SIZE);
+        original.encode(buffer, 0);
+        assertEquals(original, AuditRecord.decode(buffer, 0));
+        assertTrue(original.complete());
+        assertEquals(4, original.results().length);
+    }
+
+    @Test
+    void longFieldsAreCutWithoutSplittingCharacters() {
+        String world = "wörld_".repeat(10);
+        var record = new AuditRecord(1L, UUID.randomUUID(), "1d6", 1, 6, 3, new int[]{3}, 1, world, 0, 0, 0);
+        ByteBuffer buffer = ByteBuffer.allocate(AuditRecord.SIZE);
+        record.encode(buffer, 0);
+        String stored = AuditRecord.decode(buffer, 0).world();
+        assertTrue(world.startsWith(stored));
+        assertTrue(stored.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= 31);
+    }
+
+    @Test
+    void largeRollsKeepTheirFirstDice() {
+        var record = record(5L, "40d6", 3);
+        assertEquals(40, record.rolled());
+        assertEquals(AuditRecord.MAX_RESULTS, record.results().length);
+        assertFalse(record.complete());
+        assertTrue(record.resultsText().endsWith(", …]"));
+    }
+
+    @Test
+    void writesAndRotatesSegments() throws IOException {
+        var options = new AuditLog.Options(AuditSegment.HEADER_SIZE + 4L * AuditRecord.SIZE, 5, 1_000);
+        List<AuditRecord> expected = new ArrayList<>();
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            for (int i = 0; i < 10; i++) {
+                var record = record(1_000L + i, i % 2 == 0 ? "1d20" : "3d6!", i);
+                expected.add(record);
+                assertTrue(log.append(record));
+            }
+        }
+        try (Stream<Path> list = Files.list(dir)) {
+            assertEquals(3, list.filter(p -> AuditSegment.sequenceOf(p) > 0).count());
+        }
+        assertTrue(Files.exists(dir.resolve("rolls-000001.idx")));
+        assertEquals(expected, readAll(dir));
+    }
+
+    @Test
+    void reopeningResumesTheNewestSegment() throws IOException {
+        var options = new AuditLog.Options(1 << 16, 5, 1_000);
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            log.append(record(1L, "1d6", 1));
+        }
+        assertTrue(Files.exists(dir.resolve("rolls-000001.idx")));
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            log.append(record(2L, "1d6", 2));
+            log.append(record(3L, "1d6", 3));
+        }
+        assertFalse(Files.exists(dir.resolve("rolls-000002.pdlog")));
+        assertEquals(List.of(1L, 2L, 3L), readAll(dir).stream().map(AuditRecord::time).toList());
+
+        var stats = AuditReader.query(dir, AuditQuery.ALL, 10, false, record -> { });
+        assertEquals(3, stats.matches());
+        assertEquals(3, AuditIndex.read(dir.resolve("rolls-000001.idx"), 3).records());
+    }
+
+    @Test
+    void reopeningAFullSegmentStartsANewOne() throws IOException {
+        var options = new AuditLog.Options(AuditSegment.HEADER_SIZE + 2L * AuditRecord.SIZE, 5, 1_000);
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            log.append(record(1L, "1d6", 1));
+            log.append(record(2L, "1d6", 2));
+        }
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            log.append(record(3L, "1d6", 3));
+        }
+        assertTrue(Files.exists(dir.resolve("rolls-000002.pdlog")));
+        assertEquals(List.of(1L, 2L, 3L), readAll(dir).stream().map(AuditRecord::time).toList());
+    }
+
+    @Test
+    void newSegmentSizeAppliesFromTheNextSegment() throws IOException {
+        var large = new AuditLog.Options(AuditSegment.HEADER_SIZE + 3L * AuditRecord.SIZE, 5, 1_000);
+        var small = new AuditLog.Options(AuditSegment.HEADER_SIZE + 1L * AuditRecord.SIZE, 5, 1_000);
+        try (var log = AuditLog.open(dir, large, LOGGER)) {
+            log.append(record(1L, "1d6", 1));
+            log.configure(small);
+            for (int i = 2; i <= 5; i++) {
+                log.append(record(i, "1d6", i));
+            }
+        }
+        // Whether or not the first roll was written before the change, the newest segment has the new size
+        List<Path> segments = AuditReader.segments(dir);
+        assertTrue(segments.size() >= 3);
+        assertEquals(small.segmentBytes(), Files.size(segments.get(segments.size() - 1)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), readAll(dir).stream().map(AuditRecord::time).toList());
+    }
+
+    @Test
+    void dropsWhenClosedOrBehind() throws IOException {
+        var log = AuditLog.open(dir, new AuditLog.Options(1 << 16, 5, 1_000), LOGGER);
+        log.close();
+        assertFalse(log.append(record(1L, "1d6", 1)));
+        assertEquals(1, log.dropped());
+        assertEquals(0, log.pending());
+    }
+}
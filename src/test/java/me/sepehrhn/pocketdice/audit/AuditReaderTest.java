@@ -0,0 +1,134 @@
+package me.sepehrhn.pocketdice.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditReaderTest {
+
+    private static final Logger LOGGER = Logger.getLogger("AuditReaderTest");
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+
+    @TempDir
+    Path dir;
+
+    /** 1000 rolls at times 1..1000; Bob rolls every 100th in the nether with a d20, Alice the rest with a d6. */
+    private List<AuditRecord> writeLog() throws IOException {
+        List<AuditRecord> all = new ArrayList<>();
+        var options = new AuditLog.Options(AuditSegment.HEADER_SIZE + 300L * AuditRecord.SIZE, 5, 10_000);
+        try (var log = AuditLog.open(dir, options, LOGGER)) {
+            for (int i = 1; i <= 1_000; i++) {
+                boolean bob = i % 100 == 0;
+                var record = new AuditRecord(i, bob ? BOB : ALICE, bob ? "1d20" : "1d6", 1, bob ? 20 : 6, i % 6 + 1,
+                        new int[]{i % 6 + 1}, 1, bob ? "world_nether" : "world", i, 64, -i);
+                all.add(record);
+                assertTrue(log.append(record));
+            }
+        }
+        return all;
+    }
+
+    private static List<AuditRecord> run(Path dir, AuditQuery query, int limit, boolean newest) throws IOException {
+        List<AuditRecord> out = new ArrayList<>();
+        AuditReader.query(dir, query, limit, newest, out::add);
+        return out;
+    }
+
+    @Test
+    void indexSkipsBlocksWithoutThePlayer() throws IOException {
+        List<AuditRecord> all = writeLog();
+        List<AuditRecord> found = new ArrayList<>();
+        var stats = AuditReader.query(dir, AuditQuery.ALL.withPlayer(BOB), Integer.MAX_VALUE, false, found::add);
+
+        assertEquals(all.stream().filter(r -> r.player().equals(BOB)).toList(), found);
+        assertEquals(4, stats.segments());
+        // Bob appears in 10 blocks of 64; only those are tested
+        assertTrue(stats.recordsTested() <= 10 * AuditIndex.BLOCK_SIZE, "tested " + stats.recordsTested());
+    }
+
+    @Test
+    void filtersByTimeWorldAndFaces() throws IOException {
+        writeLog();
+        var nether = run(dir, AuditQuery.ALL.withWorld("world_nether").withFaces(20).between(250, 650), 100, false);
+        assertEquals(List.of(300L, 400L, 500L, 600L), nether.stream().map(AuditRecord::time).toList());
+
+        var none = run(dir, AuditQuery.ALL.withWorld("world_nether").withFaces(6), 100, false);
+        assertTrue(none.isEmpty());
+
+        var unknown = run(dir, AuditQuery.ALL.withPlayer(new UUID(9, 9)), 100, false);
+        assertTrue(unknown.isEmpty());
+    }
+
+    @Test
+    void newestFirstStopsAtTheLimit() throws IOException {
+        writeLog();
+        var newest = run(dir, AuditQuery.ALL, 3, true);
+        assertEquals(List.of(1_000L, 999L, 998L), newest.stream().map(AuditRecord::time).toList());
+        var oldest = run(dir, AuditQuery.ALL, 2, false);
+        assertEquals(List.of(1L, 2L), oldest.stream().map(AuditRecord::time).toList());
+    }
+
+    @Test
+    void missingOrStaleIndexesFallBackToScanning() throws IOException {
+        List<AuditRecord> all = writeLog();
+        Files.delete(dir.resolve("rolls-000001.idx"));
+        Files.write(dir.resolve("rolls-000002.idx"), new byte[]{1, 2, 3});
+
+        assertEquals(all, run(dir, AuditQuery.ALL, Integer.MAX_VALUE, false));
+        assertEquals(10, run(dir, AuditQuery.ALL.withPlayer(BOB), 100, false).size());
+
+        assertEquals(2, AuditReader.buildIndexes(dir));
+        assertEquals(0, AuditReader.buildIndexes(dir));
+        assertNotNull(AuditIndex.read(dir.resolve("rolls-000002.idx"), 300));
+    }
+
+    @Test
+    void indexRoundTrips() throws IOException {
+        writeLog();
+        var index = AuditIndex.read(dir.resolve("rolls-000001.idx"), 300);
+        assertNotNull(index);
+        assertEquals(5, index.blocks());
+        assertTrue(index.mayMatch(1, BOB, 0, Long.MAX_VALUE));   // record 100 is in block 1
+        assertFalse(index.mayMatch(0, BOB, 0, Long.MAX_VALUE));
+        assertFalse(index.mayMatch(4, ALICE, 0, 200));          // block 4 holds times 257..300
+        assertNull(AuditIndex.read(dir.resolve("rolls-000001.idx"), 299));
+    }
+
+    @Test
+    void parsesDurations() {
+        assertEquals(45_000L, AuditQuery.parseDuration("45s"));
+        assertEquals(7L * 24 * 3_600_000, AuditQuery.parseDuration("7D"));
+        assertThrows(IllegalArgumentException.class, () -> AuditQuery.parseDuration("5"));
+        assertThrows(IllegalArgumentException.class, () -> AuditQuery.parseDuration("-2h"));
+        assertThrows(IllegalArgumentException.class, () -> AuditQuery.parseDuration("2w"));
+    }
+
+    @Test
+    void toolPrintsMatchesAsTabSeparatedLines() throws IOException {
+        writeLog();
+        var out = new ByteArrayOutputStream();
+        var err = new ByteArrayOutputStream();
+        int code = AuditTool.run(new String[]{dir.toString(), "--player", BOB.toString(), "--limit", "2", "--newest"},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, code);
+        String[] lines = out.toString(StandardCharsets.UTF_8).strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("1970-01-01T00:00:01Z\t" + BOB + "\tworld_nether\t1000\t64\t-1000\t1d20\t5\t[5]", lines[0]);
+        assertEquals(2, AuditTool.run(new String[]{dir.toString(), "--bogus"},
+                new PrintStream(out), new PrintStream(err)));
+    }
+}
@@ -0,0 +1,118 @@
+package me.sepehrhn.pocketdice.history;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryBufferTest {
+
+    private static RollResult roll(DiceExpression expression, long seed) {
+        return expression.evaluate(new SplittableRandom(seed), RollResult.local());
+    }
+
+    private static List<String> recent(HistoryBuffer buffer, int limit) {
+        List<String> out = new ArrayList<>();
+        buffer.forEachRecent(limit, entry ->
+                out.add(entry.notation() + "=" + entry.appendResults(new StringBuilder()) + ":" + entry.total()));
+        return out;
+    }
+
+    @Test
+    void rendersDiceLikeTheRollMessage() {
+        var buffer = new HistoryBuffer(4, 64);
+        for (String notation : List.of("4d6kh3", "3d6!", "2d20kl1")) {
+            var expression = DiceExpression.compile(notation, true);
+            for (long seed = 0; seed < 50; seed++) {
+                var result = roll(expression, seed);
+                String expected = result.text();
+                long total = result.total();
+                buffer.add(seed, expression, result);
+                buffer.forEachRecent(1, entry -> {
+                    assertEquals(expected, entry.appendResults(new StringBuilder()).toString());
+                    assertEquals(total, entry.total());
+                    assertEquals(notation, entry.notation());
+                });
+            }
+        }
+    }
+
+    @Test
+    void keepsNewestRollsFirstAndDropsOldest() {
+        var buffer = new HistoryBuffer(3, 64);
+        var d6 = DiceExpression.compile("1d6", true);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(1_000L + i, d6, roll(d6, i));
+        }
+        assertEquals(3, buffer.size());
+        List<Long> times = new ArrayList<>();
+        buffer.forEachRecent(10, entry -> times.add(entry.time()));
+        assertEquals(List.of(1_004L, 1_003L, 1_002L), times);
+        assertEquals(2, recent(buffer, 2).size());
+    }
+
+    @Test
+    void oldRollsLoseTheirDiceBeforeTheirTotals() {
+        var buffer = new HistoryBuffer(4, 10);
+        var pool = DiceExpression.compile("4d6", true);
+        for (int i = 0; i < 3; i++) {
+            buffer.add(i, pool, roll(pool, i));
+        }
+        List<Boolean> kept = new ArrayList<>();
+        buffer.forEachRecent(3, entry -> kept.add(entry.hasResults()));
+        // 12 dice in a 10-slot arena: the oldest roll was partly overwritten
+        assertEquals(List.of(true, true, false), kept);
+        buffer.forEachRecent(3, entry -> {
+            if (!entry.hasResults()) {
+                assertEquals("[Σ" + entry.total() + "]", entry.appendResults(new StringBuilder()).toString());
+            }
+        });
+    }
+
+    @Test
+    void rollsLargerThanTheArenaKeepOnlyTheTotal() {
+        var buffer = new HistoryBuffer(2, 4);
+        var pool = DiceExpression.compile("8d6", true);
+        buffer.add(0L, pool, roll(pool, 1));
+        buffer.forEachRecent(1, entry -> {
+            assertFalse(entry.hasResults());
+            assertEquals(8, entry.dice());
+            assertEquals(6, entry.faces());
+        });
+    }
+
+    @Test
+    void worksWithoutAnArena() {
+        var buffer = new HistoryBuffer(2, 0);
+        var d20 = DiceExpression.compile("1d20+5", true);
+        var result = roll(d20, 3);
+        long total = result.total();
+        buffer.add(0L, d20, result);
+        assertEquals(List.of("1d20+5=[Σ" + total + "]:" + total), recent(buffer, 5));
+    }
+
+    @Test
+    void historyIsBoundedAndReleased() {
+        var history = new RollHistory(2, 16);
+        var player = java.util.UUID.randomUUID();
+        var d6 = DiceExpression.compile("1d6", true);
+        assertNull(history.get(player));
+        history.record(player, d6, roll(d6, 1));
+        history.record(player, d6, roll(d6, 2));
+        history.record(player, d6, roll(d6, 3));
+        assertEquals(2, history.get(player).size());
+
+        history.forget(player);
+        assertNull(history.get(player));
+
+        history.configure(0, 16);
+        assertFalse(history.isEnabled());
+        history.record(player, d6, roll(d6, 4));
+        assertNull(history.get(player));
+    }
+}
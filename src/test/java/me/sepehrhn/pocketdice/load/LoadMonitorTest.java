@@ -0,0 +1,80 @@
+package me.sepehrhn.pocketdice.load;
+
+import me.sepehrhn.pocketdice.config.LoadSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadMonitorTest {
+
+    private static final Logger LOGGER = Logger.getLogger("LoadMonitorTest");
+
+    private static LoadMonitor monitor(LoadSettings settings) {
+        return new LoadMonitor(LOGGER, () -> 0D, settings);
+    }
+
+    private static LoadSettings settings(boolean enabled, double noSound) {
+        return new LoadSettings(enabled, noSound, 45, 50, 55, 5, 8, 10);
+    }
+
+    @Test
+    void climbsDirectlyToHighestReachedLevel() {
+        var monitor = monitor(settings(true, 40));
+        assertEquals(LoadLevel.NORMAL, monitor.sample(20));
+        assertEquals(LoadLevel.SUMMARY_ONLY, monitor.sample(52));
+        assertEquals(LoadLevel.DEFERRED, monitor.sample(80));
+        assertEquals(80D, monitor.lastMspt());
+    }
+
+    @Test
+    void stepsDownOnlyBelowHysteresis() {
+        var monitor = monitor(settings(true, 40));
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(46));
+        // Hovering around the threshold keeps the level
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(44));
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(41));
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(46));
+        // Below 45 - 5 the level drops, and keeps dropping while lower thresholds are also cleared
+        assertEquals(LoadLevel.NO_SOUND, monitor.sample(39));
+        assertEquals(LoadLevel.NO_SOUND, monitor.sample(36));
+        assertEquals(LoadLevel.NORMAL, monitor.sample(20));
+    }
+
+    @Test
+    void disabledLevelsAreSkipped() {
+        var monitor = monitor(new LoadSettings(true, Double.POSITIVE_INFINITY, 45, Double.POSITIVE_INFINITY, 55, 5, 8, 10));
+        assertEquals(LoadLevel.NORMAL, monitor.sample(44));
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(52));
+        assertEquals(LoadLevel.DEFERRED, monitor.sample(60));
+        assertEquals(LoadLevel.REDUCED_RADIUS, monitor.sample(45));
+        assertEquals(LoadLevel.NORMAL, monitor.sample(30));
+    }
+
+    @Test
+    void disabledLevelsAreNotAppliedByHigherOnes() {
+        var shedding = new LoadSettings(true, Double.POSITIVE_INFINITY, 45, 50, 55, 5, 8, 10);
+        assertFalse(shedding.enabled(LoadLevel.NO_SOUND));
+        assertFalse(shedding.sheds(LoadLevel.SUMMARY_ONLY, LoadLevel.NO_SOUND));
+        assertTrue(shedding.sheds(LoadLevel.SUMMARY_ONLY, LoadLevel.REDUCED_RADIUS));
+        assertFalse(shedding.sheds(LoadLevel.SUMMARY_ONLY, LoadLevel.DEFERRED));
+        assertFalse(settings(false, 40).sheds(LoadLevel.DEFERRED, LoadLevel.NO_SOUND));
+    }
+
+    @Test
+    void disablingResetsToNormal() {
+        var monitor = monitor(settings(true, 40));
+        assertEquals(LoadLevel.DEFERRED, monitor.sample(70));
+        monitor.configure(settings(false, 40));
+        assertEquals(LoadLevel.NORMAL, monitor.level());
+        assertEquals(LoadLevel.NORMAL, monitor.sample(70));
+    }
+
+    @Test
+    void levelsAreCumulative() {
+        assertTrue(LoadLevel.DEFERRED.atLeast(LoadLevel.NO_SOUND));
+        assertFalse(LoadLevel.NO_SOUND.atLeast(LoadLevel.REDUCED_RADIUS));
+        assertEquals("summary_only", LoadLevel.SUMMARY_ONLY.key());
+    }
+}
@@ -0,0 +1,33 @@
+package me.sepehrhn.pocketdice.locale;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageTemplateTest {
+
+    private static final Map<String, String> PREFIX = Map.of("prefix", "<aqua>[PD]</aqua> ");
+
+    @Test
+    void fillsSlotsAndInlinesPrefix() {
+        var template = MessageTemplate.compile("{prefix}<gray>{player}</gray> rolled {total}", PREFIX);
+        assertEquals("<aqua>[PD]</aqua> <gray>Alex</gray> rolled 12",
+                template.render(Map.of("player", "Alex", "total", "12")));
+        assertEquals("custom <gray>Alex</gray> rolled 1",
+                template.render(Map.of("prefix", "custom ", "player", "Alex", "total", "1")));
+    }
+
+    @Test
+    void unknownSlotsAndBracesStayLiteral() {
+        var template = MessageTemplate.compile("{prefix}{missing} {a b} {} {x", PREFIX);
+        assertEquals("<aqua>[PD]</aqua> {missing} {a b} {} {x", template.render(Map.of()));
+    }
+
+    @Test
+    void valuesAreNotRescanned() {
+        var template = MessageTemplate.compile("{player}: {total}", Map.of());
+        assertEquals("{total}: 5", template.render(Map.of("player", "{total}", "total", "5")));
+    }
+}
@@ -0,0 +1,75 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueWithinAnEighth() {
+        long[] samples = {0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456, 1L << 40, Long.MAX_VALUE};
+        for (long value : samples) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket >= 0 && bucket < LatencyHistogram.BUCKETS, "bucket of " + value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= value, value + " above its bucket bound " + upper);
+            assertTrue(upper - value <= value / 8, value + " bound too loose: " + upper);
+        }
+        for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBound(bucket)));
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBound(bucket - 1) + 1));
+        }
+    }
+
+    @Test
+    void percentilesOfAKnownDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        var summary = histogram.summary();
+        assertEquals(1_000, summary.count());
+        assertEquals(500_500, summary.mean());
+        assertEquals(1_000_000, summary.max());
+        assertTrue(summary.p50() >= 500_000 && summary.p50() <= 500_000 * 9 / 8, "p50 " + summary.p50());
+        assertTrue(summary.p99() >= 990_000 && summary.p99() <= 1_000_000, "p99 " + summary.p99());
+
+        histogram.reset();
+        assertEquals(new LatencyHistogram.Summary(0, 0, 0, 0, 0), histogram.summary());
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) histogram.record(i);
+            }));
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(80_000, histogram.summary().count());
+        assertEquals(9_999, histogram.summary().max());
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        LatencyMetrics metrics = new LatencyMetrics(false);
+        long t = metrics.start();
+        assertEquals(0L, t);
+        assertEquals(0L, metrics.lap(LatencyStage.ROLL_PARSE, t));
+        assertEquals(0, metrics.summary(LatencyStage.ROLL_PARSE).count());
+
+        metrics.setEnabled(true);
+        t = metrics.start();
+        t = metrics.lap(LatencyStage.ROLL_PARSE, t);
+        metrics.lap(LatencyStage.ROLL_EVALUATE, t);
+        assertEquals(1, metrics.summary(LatencyStage.ROLL_PARSE).count());
+        assertEquals(1, metrics.summary(LatencyStage.ROLL_EVALUATE).count());
+        assertEquals("roll.evaluate", LatencyStage.ROLL_EVALUATE.key());
+    }
+}
@@ -0,0 +1,78 @@
+package me.sepehrhn.pocketdice.metrics;
+
+import me.sepehrhn.pocketdice.update.UpdateCheckStatus;
+import me.sepehrhn.pocketdice.util.DiceParser.ParseError;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrometheusExporterTest {
+
+    private static HttpResponse<String> get(PrometheusExporter exporter, String path, String method)
+            throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + exporter.port() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void servesCountersInTextFormat() throws Exception {
+        PluginCounters counters = new PluginCounters();
+        AtomicReference<UpdateCheckStatus> status = new AtomicReference<>(UpdateCheckStatus.UNKNOWN);
+        try (PrometheusExporter exporter = PrometheusExporter.start(0, counters, status::get)) {
+            for (int i = 0; i < 3; i++) counters.roll();
+            counters.parseError(ParseError.INVALID_NOTATION);
+            counters.parseError(ParseError.LIMITS_EXCEEDED);
+            counters.parseError(ParseError.LIMITS_EXCEEDED);
+            counters.rateLimited();
+            counters.reload(1_500_000_000L);
+            counters.reload(500_000_000L);
+            status.set(UpdateCheckStatus.UPDATE_AVAILABLE);
+
+            HttpResponse<String> response = get(exporter, "/metrics", "GET");
+            assertEquals(200, response.statusCode());
+            assertEquals(PrometheusExporter.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(""));
+            String body = response.body();
+            assertTrue(body.contains("# TYPE pocketdice_rolls_total counter\npocketdice_rolls_total 3\n"), body);
+            assertTrue(body.contains("pocketdice_parse_errors_total{error=\"invalid_notation\"} 1\n"));
+            assertTrue(body.contains("pocketdice_parse_errors_total{error=\"limits_exceeded\"} 2\n"));
+            assertTrue(body.contains("pocketdice_parse_errors_total{error=\"dice_nan\"} 0\n"));
+            assertTrue(body.contains("pocketdice_rate_limited_total 1\n"));
+            assertTrue(body.contains("pocketdice_reload_duration_seconds_count 2\n"));
+            assertTrue(body.contains("pocketdice_reload_duration_seconds_sum 2.000000\n"));
+            assertTrue(body.contains("pocketdice_reload_last_duration_seconds 0.500000\n"));
+            assertTrue(body.contains("pocketdice_update_status{status=\"update_available\"} 1\n"));
+            assertTrue(body.contains("pocketdice_update_status{status=\"unknown\"} 0\n"));
+        }
+    }
+
+    @Test
+    void rejectsOtherPathsAndMethods() throws Exception {
+        try (PrometheusExporter exporter = PrometheusExporter.start(0, new PluginCounters(),
+                () -> UpdateCheckStatus.UNKNOWN)) {
+            assertEquals(404, get(exporter, "/metrics/extra", "GET").statusCode());
+            assertEquals(405, get(exporter, "/metrics", "POST").statusCode());
+            assertEquals(200, get(exporter, "/metrics", "HEAD").statusCode());
+        }
+    }
+
+    @Test
+    void closingReleasesThePort() throws Exception {
+        PrometheusExporter first = PrometheusExporter.start(0, new PluginCounters(), () -> UpdateCheckStatus.UNKNOWN);
+        int port = first.port();
+        first.close();
+        try (PrometheusExporter second = PrometheusExporter.start(port, new PluginCounters(),
+                () -> UpdateCheckStatus.UNKNOWN)) {
+            assertEquals(port, second.port());
+        }
+    }
+}
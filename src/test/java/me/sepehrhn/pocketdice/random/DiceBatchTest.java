@@ -0,0 +1,74 @@
+package me.sepehrhn.pocketdice.random;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiceBatchTest {
+
+    @Test
+    void valuesAreUniform() {
+        var rng = new SplittableRandom(2024);
+        for (int faces : new int[]{2, 4, 6, 8, 10, 12, 20, 100}) {
+            int samples = faces * 2_000;
+            int[] values = new int[samples];
+            DiceBatch.fill(rng, faces, values, 0, samples);
+
+            long[] counts = new long[faces + 1];
+            for (int v : values) {
+                assertTrue(v >= 1 && v <= faces, "d" + faces + " rolled " + v);
+                counts[v]++;
+            }
+            double expected = samples / (double) faces;
+            double chiSquare = 0;
+            for (int face = 1; face <= faces; face++) {
+                double diff = counts[face] - expected;
+                chiSquare += diff * diff / expected;
+            }
+            // df = faces - 1; mean df, sd sqrt(2 df): six sigmas keeps the fixed seed far from flaky
+            int df = faces - 1;
+            assertTrue(chiSquare < df + 6 * Math.sqrt(2.0 * df) + 10, "d" + faces + " chi2=" + chiSquare);
+        }
+    }
+
+    @Test
+    void drawsSeveralDicePerWord() {
+        var rng = new CountingRandom(new SplittableRandom(7));
+        int[] values = new int[1000];
+
+        DiceBatch.fill(rng, 6, values, 0, values.length);
+        assertTrue(rng.calls < values.length / 8, "d6 used " + rng.calls + " words");
+
+        rng.calls = 0;
+        DiceBatch.fill(rng, 8, values, 0, values.length);
+        assertEquals((values.length + 20) / 21, rng.calls);
+    }
+
+    @Test
+    void fillsOnlyTheRequestedRange() {
+        int[] values = new int[10];
+        DiceBatch.fill(new SplittableRandom(1), 20, values, 3, 4);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i >= 3 && i < 7, values[i] != 0);
+        }
+        assertEquals(8, DiceBatch.chunkBits(20));
+    }
+
+    private static final class CountingRandom implements RandomGenerator {
+        private final RandomGenerator delegate;
+        int calls;
+
+        CountingRandom(RandomGenerator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long nextLong() {
+            calls++;
+            return delegate.nextLong();
+        }
+    }
+}
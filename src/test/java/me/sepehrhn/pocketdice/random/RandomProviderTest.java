@@ -0,0 +1,90 @@
+package me.sepehrhn.pocketdice.random;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomProviderTest {
+
+    @Test
+    void seededModeReplaysExactly() {
+        var first = RandomProvider.create("L64X128MixRandom", 1234L);
+        var second = RandomProvider.create("L64X128MixRandom", 1234L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.current().nextInt(1, 21), second.current().nextInt(1, 21));
+        }
+        assertTrue(first.describe().contains("seed=1234"));
+    }
+
+    @Test
+    void seededRollsDoNotInterleaveAcrossThreads() throws InterruptedException {
+        // 200d6 is batched (several dice per draw, with rejection); each concurrent roll must match a sequential one
+        var expression = DiceExpression.compile("200d6", true);
+        var sequential = RandomProvider.create("L64X128MixRandom", 42L);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            expected.add(sequential.roll(expression, new RollResult()).text());
+        }
+
+        var shared = RandomProvider.create("L64X128MixRandom", 42L);
+        List<String> actual = Collections.synchronizedList(new ArrayList<>());
+        var start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                RollResult buffer = new RollResult();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    actual.add(shared.roll(expression, buffer).text());
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void threadLocalRandomIsSeededWithFallbackAlgorithm() {
+        var provider = RandomProvider.create(RandomProvider.THREAD_LOCAL_RANDOM, 99L);
+        assertTrue(provider.describe().startsWith(RandomProvider.DEFAULT_SEEDED_ALGORITHM));
+    }
+
+    @Test
+    void splitStreamsArePerThread() throws InterruptedException {
+        var provider = RandomProvider.create("SplittableRandom", 0L);
+        RandomGenerator mine = provider.current();
+        assertSame(mine, provider.current());
+
+        var other = new AtomicReference<RandomGenerator>();
+        Thread thread = new Thread(() -> other.set(provider.current()));
+        thread.start();
+        thread.join();
+        assertNotNull(other.get());
+        assertNotSame(mine, other.get());
+    }
+
+    @Test
+    void unknownAlgorithmIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RandomProvider.create("NoSuchRandom", 0L));
+    }
+}
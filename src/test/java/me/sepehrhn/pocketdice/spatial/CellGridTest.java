@@ -0,0 +1,64 @@
+package me.sepehrhn.pocketdice.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CellGridTest {
+
+    @Test
+    void matchesLinearScan() {
+        var rng = new SplittableRandom(3);
+        var grid = new CellGrid<Integer>();
+        double[][] positions = new double[500][];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new double[]{rng.nextDouble(-300, 300), rng.nextDouble(0, 128), rng.nextDouble(-300, 300)};
+            grid.update(i, positions[i][0], positions[i][1], positions[i][2]);
+        }
+        // Move half of them, some across cell borders
+        for (int i = 0; i < positions.length; i += 2) {
+            positions[i][0] += rng.nextDouble(-40, 40);
+            positions[i][2] += rng.nextDouble(-40, 40);
+            grid.update(i, positions[i][0], positions[i][1], positions[i][2]);
+        }
+
+        for (double radius : new double[]{8, 16, 48, 5000}) {
+            for (int q = 0; q < 50; q++) {
+                double x = rng.nextDouble(-300, 300);
+                double y = rng.nextDouble(0, 128);
+                double z = rng.nextDouble(-300, 300);
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < positions.length; i++) {
+                    double dx = positions[i][0] - x, dy = positions[i][1] - y, dz = positions[i][2] - z;
+                    if (dx * dx + dy * dy + dz * dz <= radius * radius) expected.add(i);
+                }
+                List<Integer> actual = new ArrayList<>();
+                grid.forEachWithin(x, y, z, radius, actual::add);
+                assertEquals(expected, new HashSet<>(actual));
+                assertEquals(expected.size(), actual.size(), "no duplicates");
+            }
+        }
+    }
+
+    @Test
+    void removeAndNegativeCoordinates() {
+        var grid = new CellGrid<String>();
+        grid.update("a", -0.5, 64, -0.5);   // cell (-1, -1)
+        grid.update("b", 0.5, 64, 0.5);     // cell (0, 0)
+        List<String> found = new ArrayList<>();
+        grid.forEachWithin(0, 64, 0, 2, found::add);
+        assertEquals(2, found.size());
+
+        grid.remove("a");
+        found.clear();
+        grid.forEachWithin(0, 64, 0, 2, found::add);
+        assertEquals(List.of("b"), found);
+        assertEquals(1, grid.size());
+    }
+}
@@ -0,0 +1,124 @@
+package me.sepehrhn.pocketdice.stats;
+
+import me.sepehrhn.pocketdice.util.DiceExpression;
+import me.sepehrhn.pocketdice.util.RollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollStatsTest {
+
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+
+    @Test
+    void chiSquarePValuesMatchTables() {
+        // Critical values at p = 0.05 and 0.001 for the d20 and d100 degrees of freedom
+        assertEquals(0.05, ChiSquare.pValue(30.144, 19), 1e-4);
+        assertEquals(0.001, ChiSquare.pValue(43.820, 19), 1e-5);
+        assertEquals(0.05, ChiSquare.pValue(123.225, 99), 1e-4);
+        assertEquals(0.5, ChiSquare.pValue(98.334, 99), 1e-3);
+        assertEquals(1.0, ChiSquare.pValue(0.0, 5));
+        assertEquals(Math.log(24), ChiSquare.logGamma(5), 1e-12);
+    }
+
+    @Test
+    void statisticOfAnEvenAndALoadedDie() {
+        assertEquals(0.0, ChiSquare.statistic(new long[]{10, 10, 10, 10}));
+        assertEquals(20.0, ChiSquare.statistic(new long[]{30, 10, 10, 10}), 1e-9);
+        assertFalse(ChiSquare.hasEnoughData(new long[]{1, 2, 1}));
+        assertTrue(ChiSquare.hasEnoughData(new long[]{5, 5, 5}));
+    }
+
+    @Test
+    void countsFacesOnlyForUnbiasedRolls() {
+        RollStats stats = new RollStats(new int[]{20, 6}, 5);
+        var rng = new SplittableRandom(1);
+        for (String notation : List.of("1d20", "2d20kh1", "1d20+1d6", "2d20r<3", "3d6!", "1d100")) {
+            var expression = DiceExpression.compile(notation, true);
+            stats.record(ALICE, expression, expression.evaluate(rng, RollResult.local()));
+        }
+        var snapshot = stats.takeSnapshot(System.currentTimeMillis());
+        assertEquals(6, snapshot.rolls());
+        var d20 = snapshot.histograms().get(0);
+        var d6 = snapshot.histograms().get(1);
+        assertEquals(20, d20.faces());
+        assertEquals(3, d20.total());        // 1d20 and 2d20kh1 only
+        assertTrue(d6.total() >= 3);         // 3d6! including explosions
+    }
+
+    @Test
+    void fairDiceLookFair() {
+        RollStats stats = new RollStats(new int[]{20}, 5);
+        var expression = DiceExpression.compile("10d20", true);
+        var rng = new SplittableRandom(42);
+        var result = RollResult.local();
+        for (int i = 0; i < 20_000; i++) {
+            stats.record(ALICE, expression, expression.evaluate(rng, result));
+        }
+        var d20 = stats.takeSnapshot(System.currentTimeMillis()).histograms().get(0);
+        assertEquals(200_000, d20.total());
+        assertTrue(d20.hasEnoughData());
+        assertTrue(d20.pValue() > 0.001, "p = " + d20.pValue());
+    }
+
+    @Test
+    void stripedCountsAddUpAcrossThreads() throws InterruptedException {
+        RollStats stats = new RollStats(new int[]{6}, 5);
+        var expression = DiceExpression.compile("4d6", true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                var rng = new SplittableRandom(seed);
+                for (int i = 0; i < 5_000; i++) {
+                    stats.record(seed % 2 == 0 ? ALICE : BOB, expression, expression.evaluate(rng, RollResult.local()));
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.join();
+        var snapshot = stats.takeSnapshot(System.currentTimeMillis());
+        assertEquals(40_000, snapshot.rolls());
+        assertEquals(160_000, snapshot.dice());
+        assertEquals(160_000, snapshot.histograms().get(0).total());
+        assertEquals(List.of(new RollStats.Count<>("4d6", 40_000L)), snapshot.topNotations());
+        assertEquals(2, snapshot.topPlayers().size());
+    }
+
+    @Test
+    void topListsAreOrderedAndReconfiguringKeepsCounts() {
+        RollStats stats = new RollStats(new int[]{20}, 2);
+        var rng = new SplittableRandom(3);
+        String[] notations = {"1d20", "1d20", "1d20", "2d6", "2d6", "1d4"};
+        for (String notation : notations) {
+            var expression = DiceExpression.compile(notation, true);
+            stats.record(BOB, expression, expression.evaluate(rng, RollResult.local()));
+        }
+        var snapshot = stats.takeSnapshot(System.currentTimeMillis());
+        assertEquals(List.of("1d20", "2d6"), snapshot.topNotations().stream().map(RollStats.Count::key).toList());
+
+        stats.configure(new int[]{100, 20}, 3);
+        snapshot = stats.takeSnapshot(System.currentTimeMillis());
+        assertEquals(3, snapshot.topNotations().size());
+        assertEquals(100, snapshot.histograms().get(0).faces());
+        assertEquals(3, snapshot.histograms().get(1).total());
+    }
+
+    @Test
+    void rollsPerMinuteUsesTheLastMinuteOfSnapshots() {
+        RollStats stats = new RollStats(new int[0], 0);
+        var expression = DiceExpression.of(1, 6);
+        var rng = new SplittableRandom(4);
+        // Start past the minute after the constructor's own snapshot, so the window begins exactly at start
+        long start = System.currentTimeMillis() + 120_000;
+        stats.takeSnapshot(start);
+        for (int i = 0; i < 30; i++) stats.record(ALICE, expression, expression.evaluate(rng, RollResult.local()));
+        assertEquals(60.0, stats.takeSnapshot(start + 30_000).rollsPerMinute(), 1e-9);
+        assertEquals(0.0, stats.takeSnapshot(start + 200_000).rollsPerMinute(), 1e-9);
+    }
+}
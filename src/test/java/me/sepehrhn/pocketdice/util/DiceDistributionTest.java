@@ -0,0 +1,62 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiceDistributionTest {
+
+    @Test
+    void threeD6MatchesKnownOdds() {
+        var d = DiceDistribution.of(3, 6);
+        assertEquals(3, d.min());
+        assertEquals(18, d.max());
+        assertEquals(10.5, d.mean(), 1e-12);
+        assertEquals(8.75, d.variance(), 1e-12);
+        assertEquals(27.0 / 216, d.probability(10), 1e-12);
+        assertEquals(81.0 / 216, d.atLeast(12), 1e-12);
+        assertEquals(56.0 / 216, d.atLeast(13), 1e-12);
+        assertEquals(1.0, d.atLeast(3), 0.0);
+        assertEquals(0.0, d.atLeast(19), 0.0);
+        assertEquals(10, d.percentile(0.5));
+        assertSame(d, DiceDistribution.cached(3, 6));
+    }
+
+    @Test
+    void fftPathMatchesMomentsAndConvolution() {
+        // 50 * 999 totals * 50 dice is above the direct work limit
+        var d = DiceDistribution.of(50, 1000);
+        assertTrue((long) (50 * 999 + 1) * 50 > DiceDistribution.DIRECT_WORK_LIMIT);
+
+        double mean = 0;
+        double second = 0;
+        for (long total = d.min(); total <= d.max(); total++) {
+            double p = d.probability(total);
+            assertTrue(p >= 0);
+            mean += p * total;
+            second += p * total * total;
+        }
+        assertEquals(d.mean(), mean, 1e-6);
+        assertEquals(d.variance(), second - mean * mean, 1e-3 * d.variance());
+        assertEquals(Math.round(d.mean()), d.percentile(0.5), 1);
+
+    }
+
+    @Test
+    void fftAgreesWithConvolution() {
+        int dice = 20;
+        int faces = 50;
+        int range = dice * (faces - 1) + 1;
+        double[] direct = DiceDistribution.convolve(dice, faces, range);
+        double[] fft = DiceDistribution.fftPower(dice, faces, range);
+        for (int i = 0; i < range; i++) {
+            assertEquals(direct[i], fft[i], 1e-12, "total " + (dice + i));
+        }
+    }
+
+    @Test
+    void rejectsPoolsBeyondMaxRange() {
+        assertFalse(DiceDistribution.isSupported(100_000, 1000));
+        assertThrows(IllegalArgumentException.class, () -> DiceDistribution.of(100_000, 1000));
+    }
+}
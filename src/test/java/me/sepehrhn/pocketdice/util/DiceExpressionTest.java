@@ -0,0 +1,197 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiceExpressionTest {
+
+    @Test
+    void plainNotationKeepsLegacyOutput() {
+        var expr = DiceExpression.compile("2d20", true);
+        assertEquals("2d20", expr.notation());
+        assertEquals(2, expr.diceCount());
+        assertEquals(20, expr.maxFaces());
+
+        var result = expr.evaluate(new FixedRolls(7, 13));
+        assertEquals(20, result.total());
+        assertEquals("[7, 13]", result.text());
+
+        assertEquals("1d8", DiceExpression.compile(" d8 ", true).notation());
+    }
+
+    @Test
+    void arithmeticAndMultipleTerms() {
+        var expr = DiceExpression.compile("1d8 + 1D6+3", true);
+        assertEquals("1d8+1d6+3", expr.notation());
+        assertEquals(2, expr.diceCount());
+
+        var result = expr.evaluate(new FixedRolls(5, 2));
+        assertEquals(10, result.total());
+        assertEquals("[5] + [2] + 3", result.text());
+
+        var grouped = DiceExpression.compile("(1d4+2)*2 - 10/3", true).evaluate(new FixedRolls(4));
+        assertEquals(9, grouped.total());
+        assertEquals("([4] + 2) * 2 - 10 / 3", grouped.text());
+
+        assertEquals(0, DiceExpression.compile("1d6/0", true).evaluate(new FixedRolls(3)).total());
+        assertEquals(-3, DiceExpression.compile("-d6", true).evaluate(new FixedRolls(3)).total());
+    }
+
+    @Test
+    void keepAndDrop() {
+        var kh = DiceExpression.compile("4d6kh3", true).evaluate(new FixedRolls(3, 1, 6, 5));
+        assertEquals(14, kh.total());
+        assertEquals("[3, (1), 6, 5]", kh.text());
+
+        var kl = DiceExpression.compile("2d20kl1", true).evaluate(new FixedRolls(17, 4));
+        assertEquals(4, kl.total());
+        assertEquals("[(17), 4]", kl.text());
+
+        var dl = DiceExpression.compile("4d6dl1", true).evaluate(new FixedRolls(2, 2, 5, 2));
+        assertEquals(9, dl.total());
+        assertEquals("[2, 2, 5, (2)]", dl.text());
+
+        assertEquals("4d6kh3", DiceExpression.compile("4d6k3", true).notation());
+    }
+
+    @Test
+    void explodeRerollAndSuccesses() {
+        var explode = DiceExpression.compile("2d6!", true).evaluate(new FixedRolls(6, 6, 2, 4));
+        assertEquals(18, explode.total());
+        assertEquals("[6!, 6!, 2, 4]", explode.text());
+
+        var reroll = DiceExpression.compile("2d6r<3", true).evaluate(new FixedRolls(1, 2, 5, 4));
+        assertEquals(9, reroll.total());
+
+        var rerollOnce = DiceExpression.compile("1d6ro1", true).evaluate(new FixedRolls(1, 1));
+        assertEquals(1, rerollOnce.total());
+
+        var successes = DiceExpression.compile("5d10>=8", true).evaluate(new FixedRolls(8, 3, 10, 7, 9));
+        assertEquals(3, successes.total());
+        assertEquals("5d10>=8", DiceExpression.compile("5d10>=8", true).notation());
+    }
+
+    @Test
+    void reusesResultBuffer() {
+        var buffer = new RollResult();
+        var expr = DiceExpression.compile("4d6kh3", true);
+
+        assertSame(buffer, expr.evaluate(new FixedRolls(3, 1, 6, 5), buffer));
+        assertEquals(14, buffer.total());
+        assertEquals(3, buffer.min());
+        assertEquals(6, buffer.max());
+        assertEquals(4, buffer.size());
+        assertTrue(buffer.isDropped(1));
+
+        expr.evaluate(new FixedRolls(2, 2, 2, 2), buffer);
+        assertEquals(6, buffer.total());
+        assertEquals(2, buffer.min());
+        assertEquals(2, buffer.max());
+        assertEquals("[2, 2, 2, (2)]", buffer.text());
+    }
+
+    @Test
+    void evaluatesWithoutRendering() {
+        var expression = DiceExpression.compile("4d6kh3+2", true);
+        var rendered = expression.evaluate(new FixedRolls(3, 1, 6, 5), new RollResult());
+        var bare = expression.evaluate(new FixedRolls(3, 1, 6, 5), new RollResult(), false);
+        assertEquals(rendered.total(), bare.total());
+        assertEquals(rendered.min(), bare.min());
+        assertTrue(bare.isDropped(1));
+        assertEquals("", bare.text());
+    }
+
+    @Test
+    void batchedPoolsGrowAFreshBuffer() {
+        var expression = DiceExpression.compile("40d6", true);
+        var buffer = expression.evaluate(new SplittableRandom(3), new RollResult());
+        assertEquals(40, buffer.size());
+        long sum = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            assertTrue(buffer.value(i) >= 1 && buffer.value(i) <= 6);
+            sum += buffer.value(i);
+        }
+        assertEquals(sum, buffer.total());
+    }
+
+    @Test
+    void batchedTermsGrowAPartlyFilledBuffer() {
+        // 10 dice fit the initial 16 slots; the second pool has to grow the buffer halfway through the roll
+        var expression = DiceExpression.compile("10d6+300d8", true);
+        var buffer = new RollResult();
+        for (int round = 0; round < 2; round++) {
+            expression.evaluate(new SplittableRandom(11 + round), buffer);
+            assertEquals(310, buffer.size());
+            long sum = 0;
+            for (int i = 0; i < buffer.size(); i++) {
+                int limit = i < 10 ? 6 : 8;
+                assertTrue(buffer.value(i) >= 1 && buffer.value(i) <= limit, "die " + i + " = " + buffer.value(i));
+                sum += buffer.value(i);
+            }
+            assertEquals(sum, buffer.total());
+        }
+
+        // A buffer that has grown keeps working for smaller rolls
+        DiceExpression.compile("9d4", true).evaluate(new SplittableRandom(5), buffer);
+        assertEquals(9, buffer.size());
+    }
+
+    @Test
+    void invalidExpressions() {
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "1d6+");
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "(1d6");
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "1d6kh3kl1");
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "1d6r<7");
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "1d6!>=1");
+        assertError(DiceParser.ParseError.DICE_TOO_LOW, "0d6+1");
+        assertError(DiceParser.ParseError.FACES_TOO_LOW, "1d6+1d1");
+        assertError(DiceParser.ParseError.FACES_NAN, "1d99999999999kh1");
+
+        var ex = assertThrows(DiceParser.DiceParseException.class, () -> DiceExpression.compile("d6+1", false));
+        assertEquals(DiceParser.ParseError.INVALID_NOTATION, ex.getError());
+    }
+
+    @Test
+    void modifiersAboveTheSumOnlyThresholdAreNotACapViolation() {
+        var modified = assertThrows(DiceParser.DiceParseException.class,
+                () -> DiceExpression.compile("150d6kh3", true).applyLimits(1000, 1000, 100));
+        assertEquals(DiceParser.ParseError.SUM_ONLY_MODIFIERS, modified.getError());
+        assertEquals("150d6kh3", modified.getNotation());
+
+        var capped = assertThrows(DiceParser.DiceParseException.class,
+                () -> DiceExpression.compile("1500d6kh3", true).applyLimits(1000, 1000, 100));
+        assertEquals(DiceParser.ParseError.LIMITS_EXCEEDED, capped.getError());
+
+        // Without a threshold the same pool is rolled die by die
+        assertEquals(150, DiceExpression.compile("150d6kh3", true).applyLimits(1000, 1000, 0).diceCount());
+    }
+
+    private static void assertError(DiceParser.ParseError expected, String input) {
+        var ex = assertThrows(DiceParser.DiceParseException.class, () -> DiceExpression.compile(input, true));
+        assertEquals(expected, ex.getError());
+    }
+
+    /** Returns the queued die values in order, ignoring the requested bounds. */
+    private static final class FixedRolls implements RandomGenerator {
+        private final int[] values;
+        private int next;
+
+        FixedRolls(int... values) {
+            this.values = values;
+        }
+
+        @Override
+        public int nextInt(int origin, int bound) {
+            return values[next++];
+        }
+
+        @Override
+        public long nextLong() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -32,4 +32,51 @@ public class DiceParserTest {
         // shorthand disabled
         assertThrows(IllegalArgumentException.class, () -> DiceParser.parse("d8", false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void errorCodes() {
+        assertError(DiceParser.ParseError.MISSING_NOTATION, "   ", true);
+        assertError(DiceParser.ParseError.INVALID_NOTATION, "2d6x", true);
+        assertError(DiceParser.ParseError.DICE_NAN, "99999999999d6", true);
+        assertError(DiceParser.ParseError.FACES_NAN, "2d99999999999", true);
+        assertError(DiceParser.ParseError.FACES_NAN, "d99999999999", true);
+        assertError(DiceParser.ParseError.DICE_TOO_LOW, "0d6", true);
+        assertError(DiceParser.ParseError.FACES_TOO_LOW, "d1", true);
+
+        var ex = assertThrows(DiceParser.DiceParseException.class, () -> DiceParser.parse("d8", false));
+        assertEquals(DiceParser.ParseError.INVALID_NOTATION, ex.getError());
+        assertFalse(ex.isShorthandAllowed());
+    }
+
+    @Test
+    void whitespaceAndCase() {
+        var a = DiceParser.parse("  3D12\t", true);
+        assertEquals(3, a.dice());
+        assertEquals(12, a.faces());
+
+        var b = DiceParser.parse("2147483647d2147483647", false);
+        assertEquals(Integer.MAX_VALUE, b.dice());
+        assertEquals(Integer.MAX_VALUE, b.faces());
+    }
+
+    @Test
+    void parseIntoReusesSpec() {
+        var spec = new DiceParser.MutableDiceSpec();
+        assertNull(DiceParser.parseInto("4d6", true, spec));
+        assertEquals(4, spec.dice());
+        assertEquals(6, spec.faces());
+
+        assertEquals(DiceParser.ParseError.FACES_TOO_LOW, DiceParser.parseInto("4d1", true, spec));
+        assertEquals(4, spec.dice());
+        assertEquals(6, spec.faces());
+
+        assertNull(DiceParser.parseInto(new StringBuilder("d20"), true, spec));
+        assertEquals(1, spec.dice());
+        assertEquals(20, spec.faces());
+    }
+
+    private static void assertError(DiceParser.ParseError expected, String input, boolean allowShorthand) {
+        var ex = assertThrows(DiceParser.DiceParseException.class, () -> DiceParser.parse(input, allowShorthand));
+        assertEquals(expected, ex.getError());
+    }
+}
@@ -0,0 +1,88 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotationCacheTest {
+
+    @Test
+    void cachesValidAndInvalidNotations() {
+        var cache = new NotationCache(8, true, 50, 1000, 100);
+        var first = cache.get("2d6");
+        assertSame(first, cache.get("2d6"));
+
+        var a = assertThrows(DiceParser.DiceParseException.class, () -> cache.get("2dx"));
+        var b = assertThrows(DiceParser.DiceParseException.class, () -> cache.get("2dx"));
+        assertSame(a, b);
+
+        var stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+    }
+
+    @Test
+    void limitsAreCachedAndInvalidatedOnChange() {
+        var cache = new NotationCache(8, true, 10, 1000, 100);
+        var ex = assertThrows(DiceParser.DiceParseException.class, () -> cache.get("20d6"));
+        assertEquals(DiceParser.ParseError.LIMITS_EXCEEDED, ex.getError());
+        assertEquals("20d6", ex.getNotation());
+
+        cache.configure(8, true, 10, 1000, 100);
+        assertEquals(1, cache.stats().size());
+
+        cache.configure(8, true, 50, 1000, 100);
+        assertEquals(0, cache.stats().size());
+        assertEquals(20, cache.get("20d6").diceCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        var clock = new AtomicLong();
+        var cache = new NotationCache(2, true, 50, 1000, 100, () -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5)));
+        var keep = cache.get("1d20");
+        cache.get("1d6");
+        cache.get("1d20");
+        cache.get("1d8");
+
+        var stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.evictions());
+        assertSame(keep, cache.get("1d20"));
+    }
+
+    @Test
+    void hitsWithinTheResolutionDoNotRefreshRecency() {
+        var clock = new AtomicLong();
+        var cache = new NotationCache(2, true, 50, 1000, 100, clock::get);
+        cache.get("1d20");
+        clock.addAndGet(100_000);
+        cache.get("1d6");
+        cache.get("1d20"); // 0.1 ms later: still counts as the older entry
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        cache.get("1d8");
+
+        assertEquals(1, cache.stats().evictions());
+        cache.get("1d6");
+        assertEquals(2, cache.stats().hits());
+        cache.get("1d20");
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    void staysBoundedUnderUniqueGarbage() {
+        var clock = new AtomicLong();
+        var cache = new NotationCache(500, true, 50, 1000, 100, clock::incrementAndGet);
+        for (int i = 0; i < 20_000; i++) {
+            String garbage = "x" + i;
+            assertThrows(DiceParser.DiceParseException.class, () -> cache.get(garbage));
+        }
+        var stats = cache.stats();
+        assertEquals(500, stats.size());
+        assertEquals(19_500, stats.evictions());
+    }
+}
@@ -0,0 +1,101 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        var limiter = new RateLimiter(3, 2.0);
+        var player = UUID.randomUUID();
+        long t = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire(player, t));
+        }
+        long wait = limiter.tryAcquire(player, t);
+        assertEquals(SECOND / 2, wait);
+
+        // One token every half second
+        assertEquals(0L, limiter.tryAcquire(player, t + SECOND / 2));
+        assertTrue(limiter.tryAcquire(player, t + SECOND / 2) > 0);
+
+        // A long pause refills only up to the burst
+        long later = t + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire(player, later));
+        }
+        assertTrue(limiter.tryAcquire(player, later) > 0);
+    }
+
+    @Test
+    void rejectionsDoNotConsumeTokens() {
+        var limiter = new RateLimiter(1, 1.0);
+        var player = UUID.randomUUID();
+        long t = 5 * SECOND;
+        assertEquals(0L, limiter.tryAcquire(player, t));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(player, t + i) > 0);
+        }
+        assertEquals(0L, limiter.tryAcquire(player, t + SECOND));
+    }
+
+    @Test
+    void playersAreIndependentAndForgotten() {
+        var limiter = new RateLimiter(1, 1.0);
+        var a = UUID.randomUUID();
+        var b = UUID.randomUUID();
+        assertEquals(0L, limiter.tryAcquire(a, 0L));
+        assertTrue(limiter.tryAcquire(a, 0L) > 0);
+        assertEquals(0L, limiter.tryAcquire(b, 0L));
+        assertEquals(2, limiter.size());
+
+        limiter.forget(a);
+        assertEquals(1, limiter.size());
+        assertEquals(0L, limiter.tryAcquire(a, 0L));
+    }
+
+    @Test
+    void handlesNanoTimeWrap() {
+        var limiter = new RateLimiter(1, 1.0);
+        var player = UUID.randomUUID();
+        long t = Long.MAX_VALUE - SECOND / 4;
+        assertEquals(0L, limiter.tryAcquire(player, t));
+        assertTrue(limiter.tryAcquire(player, t + SECOND / 2) > 0);
+        assertEquals(0L, limiter.tryAcquire(player, t + SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        var limiter = new RateLimiter(50, 0.001);
+        var player = UUID.randomUUID();
+        var accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    if (limiter.tryAcquire(player, 0L) == 0L) accepted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(50, accepted.get());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0.0));
+    }
+}
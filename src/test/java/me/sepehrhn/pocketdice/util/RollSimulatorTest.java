@@ -0,0 +1,55 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollSimulatorTest {
+
+    @Test
+    void matchesExactMomentsOfThreeD6() {
+        var summary = RollSimulator.run(DiceExpression.compile("3d6", true), 400_000, 42L, 4);
+        assertEquals(400_000, summary.trials());
+        assertEquals(10.5, summary.mean(), 0.02);
+        assertEquals(Math.sqrt(8.75), summary.standardDeviation(), 0.02);
+        assertEquals(3, summary.min());
+        assertEquals(18, summary.max());
+        assertEquals(10, summary.median(), 1);
+        assertTrue(summary.p5() < summary.median() && summary.median() < summary.p95());
+    }
+
+    @Test
+    void sameSeedGivesSameSummary() {
+        var expression = DiceExpression.compile("4d6kh3+2", true);
+        var a = RollSimulator.run(expression, 100_000, 7L, 4);
+        var b = RollSimulator.run(expression, 100_000, 7L, 4);
+        assertEquals(a.mean(), b.mean(), 0.0);
+        assertEquals(a.p95(), b.p95());
+    }
+
+    @Test
+    void onlyOneSimulationRunsAtATime() throws Exception {
+        var simulator = new RollSimulator(2);
+        try {
+            var first = simulator.simulate(DiceExpression.compile("10d10", true), 2_000_000, 1L);
+            assertNotNull(first);
+            assertNull(simulator.simulate(DiceExpression.compile("1d6", true), 10, 1L));
+            first.get(30, TimeUnit.SECONDS);
+            assertNotNull(simulator.simulate(DiceExpression.compile("1d6", true), 10, 1L));
+        } finally {
+            simulator.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectedSubmissionDoesNotLockOut() {
+        var simulator = new RollSimulator(1);
+        simulator.shutdownNow();
+        var first = simulator.simulate(DiceExpression.compile("1d6", true), 10, 1L);
+        assertNotNull(first);
+        assertTrue(first.isCompletedExceptionally());
+        assertNotNull(simulator.simulate(DiceExpression.compile("1d6", true), 10, 1L));
+    }
+}
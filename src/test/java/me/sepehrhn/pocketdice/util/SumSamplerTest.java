@@ -0,0 +1,51 @@
+package me.sepehrhn.pocketdice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SumSamplerTest {
+
+    @Test
+    void exactTableMatchesTwoD6() {
+        double[] cdf = SumSampler.cdf(2, 6);
+        assertEquals(11, cdf.length);
+        assertEquals(1.0 / 36, cdf[0], 1e-12);          // P(2)
+        assertEquals(21.0 / 36, cdf[5], 1e-12);         // P(<= 7)
+        assertEquals(1.0, cdf[10], 0.0);
+    }
+
+    @Test
+    void samplesStayInRange() {
+        var rng = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            long exact = SumSampler.sample(300, 6, rng);
+            assertTrue(exact >= 300 && exact <= 1800);
+            long approx = SumSampler.sample(1_000_000, 20, rng);
+            assertTrue(approx >= 1_000_000 && approx <= 20_000_000);
+        }
+        assertTrue(SumSampler.hasExactTable(300, 6));
+        assertFalse(SumSampler.hasExactTable(1_000_000, 20));
+    }
+
+    @Test
+    void largePlainTermsAreSummed() {
+        var expr = DiceExpression.compile("100000d6+2", true).applyLimits(100_000, 1000, 100);
+        assertTrue(expr.hasSummedTerms());
+
+        var result = expr.evaluate(new SplittableRandom(7));
+        assertEquals(0, result.size());
+        assertEquals(100_000, result.summedDice());
+        assertTrue(result.text().startsWith("[Σ"));
+        assertTrue(result.text().endsWith("] + 2"));
+
+        var small = DiceExpression.compile("50d6", true).applyLimits(100_000, 1000, 100);
+        assertFalse(small.hasSummedTerms());
+
+        var ex = assertThrows(DiceParser.DiceParseException.class,
+                () -> DiceExpression.compile("1000d6kh3", true).applyLimits(100_000, 1000, 100));
+        assertEquals(DiceParser.ParseError.SUM_ONLY_MODIFIERS, ex.getError());
+    }
+}